@@ -0,0 +1,270 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+
+/**
+ * Clase que revisa un fichero de registro de partidas (ver <code>RegistroPartida</code>)
+ * en busca de errores y de jugadas lentas. El fichero se lee lnea a lnea y las
+ * partidas se reparten entre varios hilos a travs de una cola acotada, de modo que la
+ * memoria ocupada no depende del tamao del fichero. Cada hilo reproduce sus partidas y
+ * punta cada jugada con un motor de referencia (<code>BusquedaSMP</code> hasta el final
+ * de la partida, que en el 3x3 da el valor exacto): una jugada es un error si el
+ * resultado al que lleva (victoria, empate o derrota) es peor que el de la mejor jugada.
+ * Slo las jugadas de la mquina pueden ser lentas; el tiempo que piensa el hombre se
+ * resume aparte.
+ * Cada hilo conserva su tabla de transposicin entre partidas, as que las posiciones
+ * repetidas de un fichero grande apenas cuestan.
+ * @since Oct 2026
+ * @version 1.0
+ * @see RegistroPartida
+ * @see BusquedaSMP
+ */
+public class AnalisisRegistros {
+	int numHilos;					// Hilos de anlisis
+	long umbral;					// Milisegundos a partir de los que una jugada es lenta
+	BlockingQueue<Linea> cola;		// Partidas ledas pendientes de analizar
+	public AtomicLong partidas;		// Partidas analizadas
+	public AtomicLong jugadas;		// Jugadas analizadas
+	public AtomicLong errores;		// Jugadas que empeoran el resultado
+	public AtomicLong lentas;		// Jugadas de la mquina que superan el umbral de tiempo
+	public AtomicLong jugadasHombre;	// Jugadas del hombre
+	public AtomicLong msHombre;		// Milisegundos empleados por el hombre en sus jugadas
+	public AtomicLong invalidas;	// Partidas que no se han podido reproducir
+
+	/**
+	 * Lnea del fichero con su nmero
+	 */
+	static class Linea {
+		long numero;
+		String texto;
+
+		Linea (long n, String t) {
+			numero = n;
+			texto = t;
+		}
+	}
+
+	static final Linea FIN = new Linea(-1, null);	// Indica a un hilo que no quedan partidas
+
+	/**
+	 * Constructor.
+	 * @param hilos nmero de hilos de anlisis
+	 * @param umbralMs milisegundos a partir de los que se informa de una jugada lenta
+	 */
+	public AnalisisRegistros (int hilos, long umbralMs) {
+		numHilos = hilos;
+		umbral = umbralMs;
+		cola = new ArrayBlockingQueue<Linea>(4*hilos);
+		partidas = new AtomicLong();
+		jugadas = new AtomicLong();
+		errores = new AtomicLong();
+		lentas = new AtomicLong();
+		jugadasHombre = new AtomicLong();
+		msHombre = new AtomicLong();
+		invalidas = new AtomicLong();
+	}
+
+	/**
+	 * Analiza todas las partidas de un fichero de registro
+	 * @param br <code>BufferedReader</code> con el fichero
+	 * @throws IOException si hay un error de lectura
+	 */
+	public void analizar (BufferedReader br) throws IOException {
+		ExecutorService ejecutor;
+		ArrayList<Future<Void>> analistas;
+		String linea;
+		long n;
+
+		ejecutor = Executors.newFixedThreadPool(numHilos, new ThreadFactory() {
+			public Thread newThread (Runnable r) {
+				Thread t = new Thread(r, "analisis");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		analistas = new ArrayList<Future<Void>>();
+		for (int i=0; i<numHilos; i++)
+			analistas.add(ejecutor.submit(new Analista()));
+		try {
+			n = 0;
+			while ((linea = br.readLine()) != null) {
+				n++;
+				if (linea.trim().length() > 0)
+					encolar(new Linea(n, linea), analistas);
+			}
+			for (int i=0; i<numHilos; i++)
+				encolar(FIN, analistas);
+			for (Future<Void> f : analistas)
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Anlisis interrumpido", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("ERROR analizando las partidas", e.getCause());
+		} finally {
+			ejecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Pone una lnea en la cola cuando haya sitio. Mientras espera comprueba los hilos de
+	 * anlisis: si alguno ha terminado con un error, lanza ese error en lugar de esperar
+	 * para siempre a que se vace la cola.
+	 * @param l <code>Linea</code> a analizar
+	 * @param analistas resultados de los hilos de anlisis
+	 * @throws InterruptedException si se interrumpe la espera
+	 * @throws ExecutionException si ha fallado un hilo de anlisis
+	 */
+	void encolar (Linea l, ArrayList<Future<Void>> analistas) throws InterruptedException, ExecutionException {
+		while (!cola.offer(l, 100, TimeUnit.MILLISECONDS))
+			for (Future<Void> f : analistas)
+				if (f.isDone())
+					f.get();	// un hilo slo termina bien al recibir FIN
+	}
+
+	/**
+	 * Hilo de anlisis con su propio motor de referencia
+	 */
+	class Analista implements Callable<Void> {
+		BusquedaSMP referencia;		// Motor de referencia (un hilo)
+		int[] valores;				// Valor de cada posicin de la partida para el que mueve
+
+		Analista () {
+			referencia = new BusquedaSMP(16, 1);
+			valores = new int[Tablero.DIM*Tablero.DIM + 1];
+		}
+
+		public Void call () throws InterruptedException {
+			Linea l;
+
+			while ((l = cola.take()) != FIN) {
+				try {
+					analizar(l.numero, RegistroPartida.leer(l.texto));
+				} catch (IllegalArgumentException e) {
+					invalidas.incrementAndGet();
+					informar(l.numero, "no se puede leer: " + e.getMessage());
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Reproduce una partida y comprueba cada jugada
+		 * @param numero nmero de lnea de la partida
+		 * @param r <code>RegistroPartida</code> con la partida
+		 */
+		void analizar (long numero, RegistroPartida r) {
+			TableroMNK t;
+			int n;
+
+			// Valor de cada posicin de la partida para el jugador al que le toca mover
+			t = new TableroMNK(new Tablero(), r.empieza());
+			n = 0;
+			for (int i=0; i<r.numJugadas; i++) {
+				int c = r.celdas[i];
+				if (t.terminal() || c < 0 || c >= t.numCeldas() || !t.casillaVacia(c)) {
+					invalidas.incrementAndGet();
+					informar(numero, "la jugada " + (i+1) + " no es vlida");
+					return;
+				}
+				valores[i] = valorPosicion(t);
+				t.poner(c);
+				n++;
+			}
+			valores[n] = t.terminal() ? 0 : valorPosicion(t);
+
+			t = new TableroMNK(new Tablero(), r.empieza());
+			for (int i=0; i<n; i++) {
+				Contenido mueve = t.turno();
+				String jugador = (mueve == Contenido.CRUZ ? "X" : "O");
+				t.poner(r.celdas[i]);
+				int jugado = t.ganador() != Contenido.VACIA ? 1 : t.terminal() ? 0 : -Integer.signum(valores[i+1]);
+				int mejor = Integer.signum(valores[i]);
+				if (jugado < mejor) {
+					errores.incrementAndGet();
+					informar(numero, "jugada " + (i+1) + " (" + jugador + ", " + r.metadatos.get(jugador) + ") en la celda "
+							+ r.celdas[i] + ": " + RESULTADOS[mejor+1] + " -> " + RESULTADOS[jugado+1]);
+				}
+				if (Jugador.Tipo.HOMBRE.toString().equals(r.metadatos.get(jugador)) && r.nodos[i] == 0) {
+					jugadasHombre.incrementAndGet();
+					msHombre.addAndGet(r.milisegundos[i]);
+				} else if (r.milisegundos[i] > umbral) {
+					lentas.incrementAndGet();
+					informar(numero, "jugada " + (i+1) + " (" + jugador + ", " + r.metadatos.get(jugador) + ") lenta: "
+							+ r.milisegundos[i] + " ms, " + r.nodos[i] + " nodos" + (r.anticipadas[i] ? ", bsqueda anticipada" : ""));
+				}
+			}
+			jugadas.addAndGet(n);
+			partidas.incrementAndGet();
+		}
+
+		/**
+		 * @param t <code>TableroMNK</code> de una posicin no terminal
+		 * @return el valor exacto de la posicin para el jugador al que le toca mover
+		 */
+		int valorPosicion (TableroMNK t) {
+			referencia.buscar(t, t.numCeldas() - t.ocupadas);
+			return referencia.valor;
+		}
+	}
+
+	static final String[] RESULTADOS = {"pierde", "empata", "gana"};	// Por signo del valor
+
+	/**
+	 * Escribe un aviso sobre una partida
+	 * @param numero nmero de lnea de la partida
+	 * @param mensaje texto del aviso
+	 */
+	synchronized void informar (long numero, String mensaje) {
+		System.out.println("Partida de la lnea " + numero + ": " + mensaje);
+	}
+
+	/**
+	 * Analiza un fichero de registro de partidas
+	 * @param args nombre del fichero, nmero de hilos (por defecto el nmero de
+	 * procesadores) y umbral de jugada lenta en milisegundos (por defecto 1000)
+	 */
+	public static void main (String[] args) {
+		AnalisisRegistros analisis;
+		BufferedReader br;
+		long inicio;
+
+		if (args.length < 1) {
+			System.out.println("Uso: AnalisisRegistros fichero [hilos] [umbral ms]");
+			return;
+		}
+		analisis = new AnalisisRegistros(args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors(),
+				args.length > 2 ? Long.parseLong(args[2]) : 1000);
+		try {
+			br = new BufferedReader(new InputStreamReader(new FileInputStream(args[0]), "ISO-8859-1"));
+			inicio = System.currentTimeMillis();
+			analisis.analizar(br);
+			br.close();
+			System.out.println(analisis.partidas + " partidas, " + analisis.jugadas + " jugadas, "
+					+ analisis.errores + " errores, " + analisis.lentas + " jugadas lentas, "
+					+ analisis.invalidas + " partidas no vlidas (" + (System.currentTimeMillis() - inicio) + " ms)");
+			if (analisis.jugadasHombre.get() > 0)
+				System.out.println(analisis.jugadasHombre + " jugadas del hombre, " + analisis.msHombre.get() / analisis.jugadasHombre.get()
+						+ " ms de media");
+		} catch (IOException e) {
+			System.out.println("ERROR leyendo el fichero de registro");
+			e.printStackTrace();
+		}
+	}
+}
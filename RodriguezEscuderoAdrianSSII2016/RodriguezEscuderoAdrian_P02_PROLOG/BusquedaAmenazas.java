@@ -0,0 +1,511 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.util.HashMap;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+
+/**
+ * Clase que implementa una bsqueda en el espacio de amenazas para tableros m,n,k grandes
+ * (por ejemplo 15x15 con k=5), en los que generar todas las celdas vacas en cada nivel
+ * hace intil el minimax. El atacante slo prueba jugadas que crean una amenaza a lo
+ * largo de las lneas que pasan por la ficha que acaba de poner:
+ * <ul>
+ * <li>un <i>cuatro</i> (k-1 fichas y un hueco en una lnea de k celdas): el defensor slo
+ * puede tapar ese hueco, as que cada amenaza cuesta un nico nodo;</li>
+ * <li>un <i>cuatro abierto</i> o dos cuatros a la vez: gana en la jugada siguiente;</li>
+ * <li>un <i>tres abierto</i> (k-2 fichas que pueden convertirse en un cuatro abierto): se
+ * prueban como defensas los huecos de sus lneas y los cuatros del defensor.</li>
+ * </ul>
+ * Con slo cuatros (victoria por cuatros continuos) la bsqueda es exacta y cada
+ * amenaza cuesta un nodo. Con tres abiertos el conjunto de defensas es una
+ * aproximacin: la secuencia encontrada no se da como forzada (<code>segura</code>) y
+ * el coste crece mucho, hasta <code>limiteNodos</code>. Cuando no hay secuencia
+ * ganadora, <code>jugada</code> elige entre las celdas vacas prximas a las fichas ya
+ * puestas.
+ * @since Oct 2026
+ * @version 1.0
+ * @see TableroMNK
+ */
+public class BusquedaAmenazas {
+	public static final int RADIO = 2;		// Distancia mxima a una ficha de las celdas candidatas
+
+	TableroMNK t;						// Tablero de la bsqueda (se hacen y deshacen jugadas)
+	public boolean soloCuatros;			// Slo amenazas de cuatro (sin tres abiertos)
+	public long limiteNodos;			// Nodos mximos de una bsqueda de victoria
+	boolean sinTres;					// La bsqueda en curso slo usa cuatros
+	HashMap<Long, Integer> fracasos;	// Profundidad a la que no se encontr victoria en cada posicin
+	int[][] candidatas;					// Vector de celdas candidatas por nivel
+	boolean[] marca;					// Celdas ya aadidas a las candidatas
+	int[] huecos;						// Huecos ganadores encontrados por ganadoras()
+	int[] huecosProximos;				// Celdas vacas prximas a las fichas (celdaGanadora, defensas)
+	int[] vacias;						// Huecos de las lneas de un tres (tresAbierto)
+	public long nodos;					// Nodos visitados en la ltima bsqueda
+	public int[] secuencia;				// Jugadas del atacante de la ltima victoria encontrada
+	public int longitud;				// Nmero de jugadas de la secuencia
+	public boolean segura;				// La secuencia slo usa cuatros y es una victoria forzada
+
+	/**
+	 * Constructor.
+	 * @param tablero <code>TableroMNK</code> sobre el que se busca
+	 */
+	public BusquedaAmenazas (TableroMNK tablero) {
+		t = tablero;
+		fracasos = new HashMap<Long, Integer>();
+		limiteNodos = 50000;
+		marca = new boolean[t.numCeldas()];
+		huecos = new int[4*t.k];
+		huecosProximos = new int[t.numCeldas()];
+		vacias = new int[4*t.k*t.k];
+		candidatas = new int[0][];
+		secuencia = new int[t.numCeldas()];
+	}
+
+	/**
+	 * Busca una victoria del jugador al que le toca mover, con profundizacin
+	 * iterativa sobre el nmero de amenazas: primero slo con cuatros, que es muy
+	 * barato, y despus (salvo con <code>soloCuatros</code>) tambin con tres abiertos.
+	 * Slo una victoria por cuatros es forzada (<code>segura</code>); con tres abiertos no
+	 * se prueban todas las defensas y la secuencia puede no ganar.
+	 * @param profundidad nmero mximo de jugadas del atacante
+	 * @return la primera jugada de la victoria o -1 si no se ha encontrado
+	 */
+	public int victoria (int profundidad) {
+		nodos = 0;
+		longitud = 0;
+		segura = false;
+		if (candidatas.length < profundidad + 2)
+			candidatas = new int[profundidad + 2][t.numCeldas()];
+		for (int fase=0; fase<(soloCuatros ? 1 : 2); fase++) {
+			sinTres = fase == 0;
+			fracasos.clear();
+			for (int p=1; p<=profundidad && nodos<limiteNodos; p++)
+				if (vct(p, 0)) {
+					segura = sinTres;
+					return secuencia[0];
+				}
+		}
+		longitud = 0;
+		return -1;
+	}
+
+	/**
+	 * Elige la jugada del jugador al que le toca mover: ganar si puede, tapar un hueco
+	 * ganador del rival, jugar una victoria por amenazas si la encuentra o, si no, la celda
+	 * prxima a las fichas que ms lneas propias y del rival refuerza.
+	 * @param profundidad nmero mximo de amenazas de la bsqueda de victoria
+	 * @return la celda elegida
+	 */
+	public int jugada (int profundidad) {
+		Contenido yo, rival;
+		int n, celda, mejor, valorMejor;
+
+		yo = t.turno();
+		rival = TableroMNK.oponente(yo);
+		if (t.ocupadas == 0)
+			return (t.filas / 2) * t.columnas + t.columnas / 2;
+		if ((celda = celdaGanadora(yo)) >= 0)
+			return celda;
+		if ((celda = celdaGanadora(rival)) >= 0)
+			return celda;
+		if ((celda = victoria(profundidad)) >= 0)
+			return celda;
+
+		n = proximas(candidatas[0], RADIO);
+		mejor = candidatas[0][0];
+		valorMejor = Integer.MIN_VALUE;
+		for (int i=0; i<n; i++) {
+			int v = potencial(candidatas[0][i], yo) + potencial(candidatas[0][i], rival);
+			if (v > valorMejor) {
+				valorMejor = v;
+				mejor = candidatas[0][i];
+			}
+		}
+		return mejor;
+	}
+
+	/**
+	 * Busca una victoria por amenazas continuas del jugador al que le toca mover
+	 * @param profundidad nmero de amenazas que an puede hacer
+	 * @param nivel nmero de amenazas ya hechas
+	 * @return <code>true</code> si tiene una secuencia ganadora
+	 */
+	boolean vct (int profundidad, int nivel) {
+		Contenido atacante, defensor;
+		Integer fallo;
+		int n, obligada, minimo;
+
+		nodos++;
+		atacante = t.turno();
+		defensor = TableroMNK.oponente(atacante);
+		if ((secuencia[nivel] = celdaGanadora(atacante)) >= 0) {
+			longitud = nivel + 1;
+			return true;
+		}
+		if (profundidad == 0 || nodos >= limiteNodos)
+			return false;
+		fallo = fracasos.get(t.hash());
+		if (fallo != null && fallo >= profundidad)
+			return false;
+
+		// Si el defensor amenaza con ganar, slo vale tapar su hueco (y seguir atacando)
+		obligada = celdaGanadora(defensor);
+		if (obligada >= 0) {
+			candidatas[nivel][0] = obligada;
+			n = 1;
+		} else n = proximas(candidatas[nivel], RADIO);
+
+		// Primero los cuatros (una sola defensa) y despus los tres abiertos. Slo pueden
+		// crear una amenaza las celdas de lneas con bastantes fichas propias.
+		for (int pasada=0; pasada<(sinTres ? 1 : 2); pasada++) {
+			minimo = pasada == 0 ? t.k-2 : t.k-3;
+			for (int i=0; i<n; i++) {
+				int celda = candidatas[nivel][i];
+				boolean gana;
+				if (!t.casillaVacia(celda) || (obligada < 0 && enLineaLibre(celda, atacante) < minimo))
+					continue;
+				t.poner(celda);
+				secuencia[nivel] = celda;
+				// tras tapar un hueco el defensor an podra tener otro
+				gana = (obligada < 0 || celdaGanadora(defensor) < 0) && amenaza(celda, profundidad, nivel, pasada == 0);
+				t.quitar();
+				if (gana)
+					return true;
+			}
+		}
+		if (nodos < limiteNodos)	// si se ha agotado el lmite no se sabe
+			fracasos.put(t.hash(), profundidad);
+		return false;
+	}
+
+	/**
+	 * Comprueba si la jugada del atacante que se acaba de poner es una amenaza que le
+	 * lleva a la victoria frente a todas las defensas
+	 * @param celda celda que acaba de ocupar el atacante
+	 * @param profundidad nmero de amenazas que an puede hacer (incluida sta)
+	 * @param nivel nmero de amenazas ya hechas
+	 * @param cuatros <code>true</code> si slo se aceptan cuatros y <code>false</code>
+	 * si slo se aceptan tres abiertos
+	 * @return <code>true</code> si gana
+	 */
+	boolean amenaza (int celda, int profundidad, int nivel, boolean cuatros) {
+		Contenido atacante;
+		int g, n;
+
+		atacante = TableroMNK.oponente(t.turno());
+		g = ganadoras(celda, atacante);
+		if ((g > 0) != cuatros)
+			return false;
+		if (g >= 2) {						// cuatro abierto o doble cuatro
+			longitud = nivel + 1;
+			return true;
+		}
+		if (g == 1) {						// cuatro: una nica defensa
+			boolean gana;
+			t.poner(huecos[0]);
+			gana = t.ganador() == Contenido.VACIA && vct(profundidad-1, nivel+1);
+			t.quitar();
+			return gana;
+		}
+		if (!tresAbierto(celda, atacante))
+			return false;
+
+		// Tres abierto: el atacante debe ganar contra todas las defensas
+		n = defensas(celda, atacante, candidatas[nivel+1]);
+		if (n == 0)
+			return false;
+		int[] defensas = java.util.Arrays.copyOf(candidatas[nivel+1], n);
+		for (int d : defensas) {
+			boolean gana;
+			t.poner(d);
+			gana = t.ganador() == Contenido.VACIA && vct(profundidad-1, nivel+1);
+			t.quitar();
+			if (!gana)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Cuenta los huecos en los que un jugador completara una lnea de k que pase por
+	 * una de sus fichas (quedan en <code>huecos</code>)
+	 * @param celda celda ocupada por el jugador
+	 * @param ficha <code>Contenido</code> del jugador
+	 * @return el nmero de huecos distintos
+	 */
+	int ganadoras (int celda, Contenido ficha) {
+		int n, f0, c0;
+
+		n = 0;
+		f0 = celda / t.columnas;
+		c0 = celda % t.columnas;
+		for (int[] d : TableroMNK.DIRECCIONES)
+			for (int s=-(t.k-1); s<=0; s++) {
+				int propias = 0, hueco = -1, vacias = 0;
+				boolean valida = true;
+				for (int i=0; i<t.k && valida; i++) {
+					int f = f0 + (s+i)*d[0], c = c0 + (s+i)*d[1];
+					if (f < 0 || f >= t.filas || c < 0 || c >= t.columnas)
+						valida = false;
+					else if (t.celdas[f*t.columnas + c] == ficha.ordinal())
+						propias++;
+					else if (t.celdas[f*t.columnas + c] == TableroMNK.VACIA) {
+						vacias++;
+						hueco = f*t.columnas + c;
+					} else valida = false;
+				}
+				if (valida && propias == t.k-1 && vacias == 1 && !contiene(huecos, n, hueco))
+					huecos[n++] = hueco;
+			}
+		return n;
+	}
+
+	/**
+	 * Comprueba si la ficha de una celda forma un tres abierto: una lnea de k celdas con
+	 * k-2 fichas del jugador en la que poner en uno de los huecos da un cuatro abierto
+	 * @param celda celda ocupada por el jugador
+	 * @param ficha <code>Contenido</code> del jugador
+	 * @return <code>true</code> si hay un tres abierto
+	 */
+	boolean tresAbierto (int celda, Contenido ficha) {
+		int n;
+
+		n = huecosDeLineas(celda, ficha, t.k-2, vacias);
+		for (int i=0; i<n; i++) {
+			int g;
+			t.celdas[vacias[i]] = (byte) ficha.ordinal();	// slo se consultan las celdas
+			g = ganadoras(vacias[i], ficha);
+			t.celdas[vacias[i]] = TableroMNK.VACIA;
+			if (g >= 2)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Obtiene las defensas frente a un tres abierto: los huecos de sus lneas y las
+	 * jugadas con las que el defensor hace un cuatro
+	 * @param celda celda del tres
+	 * @param ficha <code>Contenido</code> del atacante
+	 * @param defensas vector en el que se escriben las celdas
+	 * @return el nmero de defensas
+	 */
+	int defensas (int celda, Contenido ficha, int[] defensas) {
+		int n, m;
+		Contenido defensor;
+
+		n = huecosDeLineas(celda, ficha, t.k-2, defensas);
+		defensor = TableroMNK.oponente(ficha);
+		m = proximas(huecosProximos, RADIO);
+		for (int i=0; i<m; i++) {
+			int c = huecosProximos[i];
+			if (contiene(defensas, n, c))
+				continue;
+			t.celdas[c] = (byte) defensor.ordinal();
+			if (ganadoras(c, defensor) > 0)
+				defensas[n++] = c;
+			t.celdas[c] = TableroMNK.VACIA;
+		}
+		return n;
+	}
+
+	/**
+	 * Obtiene los huecos de las lneas de k celdas que pasan por una ficha y tienen al
+	 * menos un nmero de fichas del jugador y ninguna del rival
+	 * @param celda celda ocupada por el jugador
+	 * @param ficha <code>Contenido</code> del jugador
+	 * @param minimo nmero mnimo de fichas del jugador en la lnea
+	 * @param vacias vector en el que se escriben los huecos
+	 * @return el nmero de huecos distintos
+	 */
+	int huecosDeLineas (int celda, Contenido ficha, int minimo, int[] vacias) {
+		int n, f0, c0;
+
+		n = 0;
+		f0 = celda / t.columnas;
+		c0 = celda % t.columnas;
+		for (int[] d : TableroMNK.DIRECCIONES)
+			for (int s=-(t.k-1); s<=0; s++) {
+				int propias = 0;
+				boolean valida = true;
+				for (int i=0; i<t.k && valida; i++) {
+					int f = f0 + (s+i)*d[0], c = c0 + (s+i)*d[1];
+					if (f < 0 || f >= t.filas || c < 0 || c >= t.columnas)
+						valida = false;
+					else if (t.celdas[f*t.columnas + c] == ficha.ordinal())
+						propias++;
+					else if (t.celdas[f*t.columnas + c] != TableroMNK.VACIA)
+						valida = false;
+				}
+				if (!valida || propias < minimo)
+					continue;
+				for (int i=0; i<t.k; i++) {
+					int h = (f0 + (s+i)*d[0])*t.columnas + c0 + (s+i)*d[1];
+					if (t.celdas[h] == TableroMNK.VACIA && !contiene(vacias, n, h))
+						vacias[n++] = h;
+				}
+			}
+		return n;
+	}
+
+	/**
+	 * Busca una celda vaca en la que un jugador completara k en lnea
+	 * @param ficha <code>Contenido</code> del jugador
+	 * @return la celda o -1 si no hay
+	 */
+	int celdaGanadora (Contenido ficha) {
+		int n;
+
+		// El hueco tiene que estar junto a alguna ficha del jugador
+		n = proximas(huecosProximos, 1);
+		for (int i=0; i<n; i++)
+			if (completaria(huecosProximos[i], ficha))
+				return huecosProximos[i];
+		return -1;
+	}
+
+	/**
+	 * @param celda celda vaca
+	 * @param ficha <code>Contenido</code> de un jugador
+	 * @return <code>true</code> si el jugador hara k en lnea poniendo en la celda
+	 */
+	boolean completaria (int celda, Contenido ficha) {
+		boolean completa;
+
+		t.celdas[celda] = (byte) ficha.ordinal();
+		completa = t.enLinea(celda) >= t.k;
+		t.celdas[celda] = TableroMNK.VACIA;
+		return completa;
+	}
+
+	/**
+	 * Obtiene las celdas vacas prximas a alguna ficha. Se recorre el tablero y no el
+	 * historial para tener en cuenta tambin las fichas colocadas con <code>fijar</code>.
+	 * @param celdas vector en el que se escriben las celdas
+	 * @param radio distancia mxima (en filas y en columnas) a una ficha
+	 * @return el nmero de celdas
+	 */
+	int proximas (int[] celdas, int radio) {
+		int n;
+
+		n = 0;
+		for (int j=0; j<t.celdas.length; j++) {
+			if (t.celdas[j] == TableroMNK.VACIA)
+				continue;
+			int f0 = j / t.columnas, c0 = j % t.columnas;
+			for (int f=Math.max(f0-radio, 0); f<=Math.min(f0+radio, t.filas-1); f++)
+				for (int c=Math.max(c0-radio, 0); c<=Math.min(c0+radio, t.columnas-1); c++) {
+					int celda = f*t.columnas + c;
+					if (t.celdas[celda] == TableroMNK.VACIA && !marca[celda]) {
+						marca[celda] = true;
+						celdas[n++] = celda;
+					}
+				}
+		}
+		for (int i=0; i<n; i++)
+			marca[celdas[i]] = false;
+		return n;
+	}
+
+	/**
+	 * Valora una celda vaca para un jugador por las lneas de k celdas que pasan por
+	 * ella sin fichas del rival (ms cuantas ms fichas suyas tienen)
+	 * @param celda celda vaca
+	 * @param ficha <code>Contenido</code> del jugador
+	 * @return la valoracin
+	 */
+	int potencial (int celda, Contenido ficha) {
+		int v, f0, c0;
+
+		v = 0;
+		f0 = celda / t.columnas;
+		c0 = celda % t.columnas;
+		for (int[] d : TableroMNK.DIRECCIONES)
+			for (int s=-(t.k-1); s<=0; s++) {
+				int propias = 0;
+				boolean valida = true;
+				for (int i=0; i<t.k && valida; i++) {
+					int f = f0 + (s+i)*d[0], c = c0 + (s+i)*d[1];
+					if (f < 0 || f >= t.filas || c < 0 || c >= t.columnas)
+						valida = false;
+					else if (t.celdas[f*t.columnas + c] == ficha.ordinal())
+						propias++;
+					else if (t.celdas[f*t.columnas + c] != TableroMNK.VACIA)
+						valida = false;
+				}
+				if (valida)
+					v += 1 << (2*Math.min(propias, 10));
+			}
+		return v;
+	}
+
+	/**
+	 * Calcula el mximo de fichas de un jugador en las lneas de k celdas que pasan por
+	 * una celda y no tienen fichas del rival
+	 * @param celda celda
+	 * @param ficha <code>Contenido</code> del jugador
+	 * @return el nmero de fichas (-1 si no hay ninguna lnea libre)
+	 */
+	int enLineaLibre (int celda, Contenido ficha) {
+		int mejor, f0, c0;
+
+		mejor = -1;
+		f0 = celda / t.columnas;
+		c0 = celda % t.columnas;
+		for (int[] d : TableroMNK.DIRECCIONES)
+			for (int s=-(t.k-1); s<=0; s++) {
+				int propias = 0;
+				boolean valida = true;
+				for (int i=0; i<t.k && valida; i++) {
+					int f = f0 + (s+i)*d[0], c = c0 + (s+i)*d[1];
+					if (f < 0 || f >= t.filas || c < 0 || c >= t.columnas)
+						valida = false;
+					else if (t.celdas[f*t.columnas + c] == ficha.ordinal())
+						propias++;
+					else if (t.celdas[f*t.columnas + c] != TableroMNK.VACIA)
+						valida = false;
+				}
+				if (valida && propias > mejor)
+					mejor = propias;
+			}
+		return mejor;
+	}
+
+	static boolean contiene (int[] v, int n, int x) {
+		for (int i=0; i<n; i++)
+			if (v[i] == x)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Partida de la mquina contra s misma en un tablero m,n,k, buscando en cada jugada
+	 * una victoria por amenazas
+	 * @param args filas, columnas, k y nmero mximo de amenazas (por defecto 15 15 5 10)
+	 */
+	public static void main (String[] args) {
+		TableroMNK t;
+		BusquedaAmenazas busqueda;
+		int profundidad;
+
+		t = args.length >= 3 ?
+				new TableroMNK(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2])) :
+				new TableroMNK(15, 15, 5);
+		profundidad = args.length >= 4 ? Integer.parseInt(args[3]) : 10;
+		busqueda = new BusquedaAmenazas(t);
+		while (!t.terminal()) {
+			long inicio = System.nanoTime();
+			int celda = busqueda.jugada(profundidad);
+			long micros = (System.nanoTime() - inicio) / 1000;
+			boolean encontrada = busqueda.longitud > 0 && busqueda.secuencia[0] == celda;
+			System.out.print((t.turno() == Contenido.CRUZ ? "X" : "O") + " ");
+			t.movimiento(celda, 0).print();
+			if (encontrada)
+				System.out.println("  " + (busqueda.segura ? "victoria forzada" : "posible victoria (con tres abiertos, sin verificar)")
+						+ " en " + busqueda.longitud + " amenazas (" + busqueda.nodos + " nodos, " + micros + " us)");
+			busqueda.longitud = 0;
+			t.poner(celda);
+		}
+		t.print();
+		System.out.println(t.estado());
+	}
+}
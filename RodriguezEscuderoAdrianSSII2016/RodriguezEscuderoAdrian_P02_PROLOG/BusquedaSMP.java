@@ -0,0 +1,465 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+
+/**
+ * Clase que implementa una bsqueda alfa-beta (negamax) con profundizacin iterativa
+ * sobre un <code>TableroMNK</code> repartida entre varios hilos segn el esquema
+ * <i>Lazy SMP</i>: todos los hilos buscan la misma posicin, cada uno con un orden de
+ * jugadas ligeramente distinto (y los auxiliares alternando la profundidad de inicio),
+ * y se comunican slo a travs de una tabla de transposicin compartida. Lo que un hilo
+ * guarda en la tabla le sirve a los dems para ordenar jugadas y cortar ramas.
+ * <p>
+ * La tabla no utiliza cerrojos: cada entrada son dos <code>long</code>, los datos y la
+ * clave de Zobrist XOR los datos. Si dos hilos escriben a la vez la misma entrada y
+ * quedan mezcladas las dos mitades, la comprobacin de la clave falla al leerla y se
+ * trata como si no estuviera, as que los hilos nunca se esperan entre s.
+ * <p>
+ * La jugada elegida es la del hilo principal; los auxiliares se detienen en cuanto ste
+ * termina la ltima iteracin.
+ * @since Oct 2026
+ * @version 1.0
+ * @see TableroMNK
+ * @see Jugador
+ */
+public class BusquedaSMP {
+	public static final int GANA = 100000000;		// Valor de una victoria (menos los niveles hasta ella)
+	static final int EXACTO = 0, COTA_INFERIOR = 1, COTA_SUPERIOR = 2;	// Tipo de valor guardado
+	static final long VALIDA = 1L << 63;			// Marca de entrada ocupada en los datos
+
+	long[] claves;					// Clave de Zobrist XOR datos de cada entrada
+	long[] datos;					// Valor, profundidad, tipo y mejor celda de cada entrada
+	int mascara;					// Nmero de entradas - 1
+	int numHilos;					// Nmero de hilos (el principal y numHilos-1 auxiliares)
+	ExecutorService ejecutor;		// Hilos auxiliares
+	volatile boolean parar;			// Indica a los auxiliares que el principal ha terminado
+	int[][] ventanas;				// Celdas de cada lnea de k celdas del tablero buscado
+
+	public long nodos;				// Nodos visitados por todos los hilos en la ltima bsqueda
+	public int mejorCelda;			// Celda elegida en la ltima bsqueda
+	public int valor;				// Valor de la celda elegida para el jugador que mueve
+
+	/**
+	 * Constructor. Crea la tabla de transposicin y los hilos auxiliares.
+	 * @param bitsTabla logaritmo en base 2 del nmero de entradas de la tabla
+	 * @param hilos nmero total de hilos de bsqueda
+	 */
+	public BusquedaSMP (int bitsTabla, int hilos) {
+		claves = new long[1 << bitsTabla];
+		datos = new long[1 << bitsTabla];
+		mascara = (1 << bitsTabla) - 1;
+		numHilos = hilos;
+		if (hilos > 1)
+			ejecutor = Executors.newFixedThreadPool(hilos-1, new ThreadFactory() {
+				public Thread newThread (Runnable r) {
+					Thread t = new Thread(r, "smp");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+	}
+
+	/**
+	 * Busca la mejor jugada para el jugador al que le toca mover
+	 * @param t <code>TableroMNK</code> con la posicin (no se modifica)
+	 * @param profundidad profundidad de la ltima iteracin
+	 * @return la celda elegida
+	 */
+	public int buscar (TableroMNK t, int profundidad) {
+		Hilo principal;
+		ArrayList<Future<Long>> auxiliares;
+		boolean terminada;
+
+		if (t.terminal())
+			throw new IllegalArgumentException("La partida ya ha terminado");
+		ventanas = ventanas(t);
+		parar = false;
+		auxiliares = new ArrayList<Future<Long>>();
+		for (int i=1; i<numHilos; i++)
+			auxiliares.add(ejecutor.submit(new Hilo(i, t, profundidad)));
+		principal = new Hilo(0, t, profundidad);
+		terminada = false;
+		try {
+			principal.call();
+			terminada = true;
+		} finally {
+			parar = true;
+			if (!terminada)	// que los auxiliares no sigan durante la bsqueda siguiente
+				esperar(auxiliares);
+		}
+
+		nodos = principal.nodos;
+		try {
+			for (Future<Long> f : auxiliares)
+				nodos += f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Bsqueda interrumpida", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("ERROR en un hilo de bsqueda", e.getCause());
+		}
+		mejorCelda = principal.mejorCelda;
+		valor = principal.valor;
+		return mejorCelda;
+	}
+
+	/**
+	 * Espera a que terminen los hilos auxiliares tras un error del hilo principal,
+	 * descartando sus resultados
+	 * @param auxiliares resultados de los hilos auxiliares
+	 */
+	static void esperar (ArrayList<Future<Long>> auxiliares) {
+		for (Future<Long> f : auxiliares)
+			try {
+				f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				// ya se est propagando el error del hilo principal
+			}
+	}
+
+	/**
+	 * Vaca la tabla de transposicin
+	 */
+	public void vaciar () {
+		java.util.Arrays.fill(claves, 0);
+		java.util.Arrays.fill(datos, 0);
+	}
+
+	/**
+	 * Libera los hilos auxiliares
+	 */
+	public void cerrar () {
+		if (ejecutor != null)
+			ejecutor.shutdown();
+	}
+
+	/**
+	 * Guarda una entrada en la tabla (siempre reemplaza la anterior)
+	 * @param hash clave de Zobrist de la posicin
+	 * @param v valor de la posicin
+	 * @param prof profundidad con la que se ha buscado
+	 * @param tipo <code>EXACTO</code>, <code>COTA_INFERIOR</code> o <code>COTA_SUPERIOR</code>
+	 * @param celda mejor celda encontrada (-1 si no hay)
+	 */
+	void guardar (long hash, int v, int prof, int tipo, int celda) {
+		long d;
+		int i;
+
+		d = VALIDA | (v & 0xFFFFFFFFL) | ((long) prof << 32) | ((long) tipo << 40) | ((long) (celda+1) << 42);
+		i = (int) hash & mascara;
+		datos[i] = d;
+		claves[i] = hash ^ d;
+	}
+
+	/**
+	 * Consulta la tabla
+	 * @param hash clave de Zobrist de la posicin
+	 * @return los datos de la entrada o 0 si no est (o se ha ledo a medio escribir)
+	 */
+	long consultar (long hash) {
+		long d;
+		int i;
+
+		i = (int) hash & mascara;
+		d = datos[i];
+		if ((d & VALIDA) == 0 || (claves[i] ^ d) != hash)
+			return 0;
+		return d;
+	}
+
+	static int valorDe (long d) {
+		return (int) d;
+	}
+
+	static int profundidadDe (long d) {
+		return (int) (d >>> 32) & 0xFF;
+	}
+
+	static int tipoDe (long d) {
+		return (int) (d >>> 40) & 0x3;
+	}
+
+	static int celdaDe (long d) {
+		return (int) ((d >>> 42) & 0xFFFF) - 1;
+	}
+
+	/**
+	 * Obtiene las celdas de todas las lneas de k celdas del tablero
+	 * @param t <code>TableroMNK</code>
+	 * @return las celdas de cada lnea
+	 */
+	static int[][] ventanas (TableroMNK t) {
+		ArrayList<int[]> lista;
+
+		lista = new ArrayList<int[]>();
+		for (int f=0; f<t.filas; f++)
+			for (int c=0; c<t.columnas; c++)
+				for (int[] d : TableroMNK.DIRECCIONES) {
+					int ff = f + (t.k-1)*d[0], cf = c + (t.k-1)*d[1];
+					if (ff < 0 || ff >= t.filas || cf < 0 || cf >= t.columnas)
+						continue;
+					int[] v = new int[t.k];
+					for (int i=0; i<t.k; i++)
+						v[i] = (f + i*d[0])*t.columnas + c + i*d[1];
+					lista.add(v);
+				}
+		return lista.toArray(new int[lista.size()][]);
+	}
+
+	/**
+	 * Bsqueda de un hilo: profundizacin iterativa con su propio tablero y orden de
+	 * jugadas. Devuelve el nmero de nodos visitados.
+	 */
+	class Hilo implements Callable<Long> {
+		int id;						// 0 para el hilo principal
+		TableroMNK t;				// Copia del tablero sobre la que se hacen y deshacen jugadas
+		int profundidad;			// Profundidad de la ltima iteracin
+		int[] orden;				// Orden en que se prueban las celdas
+		int[][] jugadas;			// Vector de jugadas por nivel
+		long nodos;					// Nodos visitados
+		int mejorCelda;				// Mejor celda de la ltima iteracin completa
+		int valor;					// Valor de la mejor celda
+
+		Hilo (int i, TableroMNK raiz, int prof) {
+			id = i;
+			t = new TableroMNK(raiz);
+			profundidad = prof;
+			jugadas = new int[prof+1][t.numCeldas()];
+			orden = orden(t, i);
+			mejorCelda = -1;
+		}
+
+		public Long call () {
+			// Los auxiliares impares empiezan un nivel ms adelante para repartir el trabajo
+			for (int d = 1 + id % 2; d <= profundidad; d++) {
+				int v = raiz(d);
+				if (abortar())
+					break;
+				valor = v;
+			}
+			return nodos;
+		}
+
+		boolean abortar () {
+			return id != 0 && parar;
+		}
+
+		/**
+		 * Bsqueda en la raz: recuerda la mejor celda
+		 * @param prof profundidad de la iteracin
+		 * @return el valor de la raz
+		 */
+		int raiz (int prof) {
+			int n, mejor, alfa, celda;
+
+			n = ordenar(0, celdaDe(consultar(t.hash())));
+			mejor = -GANA - 1;
+			celda = -1;
+			alfa = -GANA - 1;
+			for (int i=0; i<n; i++) {
+				t.poner(jugadas[0][i]);
+				int v = -negamax(prof-1, 1, -GANA - 1, -alfa);
+				t.quitar();
+				if (abortar())
+					return 0;
+				if (v > mejor) {
+					mejor = v;
+					celda = jugadas[0][i];
+					if (v > alfa)
+						alfa = v;
+				}
+			}
+			mejorCelda = celda;
+			guardar(t.hash(), mejor, prof, EXACTO, celda);
+			return mejor;
+		}
+
+		/**
+		 * Bsqueda alfa-beta en formato negamax
+		 * @param prof profundidad restante
+		 * @param nivel distancia a la raz
+		 * @param alfa cota inferior
+		 * @param beta cota superior
+		 * @return el valor de la posicin para el jugador al que le toca mover
+		 */
+		int negamax (int prof, int nivel, int alfa, int beta) {
+			long d;
+			int n, mejor, celda, alfaInicial, tipo;
+
+			nodos++;
+			if (t.ganador() != Contenido.VACIA)
+				return -(GANA - nivel);		// acaba de ganar el rival
+			if (t.completo())
+				return 0;
+			if (prof == 0)
+				return evaluar();
+			if (abortar())
+				return 0;
+
+			d = consultar(t.hash());
+			if (d != 0 && profundidadDe(d) >= prof) {
+				int v = desdeTabla(valorDe(d), nivel);
+				tipo = tipoDe(d);
+				if (tipo == EXACTO || (tipo == COTA_INFERIOR && v >= beta) || (tipo == COTA_SUPERIOR && v <= alfa))
+					return v;
+			}
+
+			alfaInicial = alfa;
+			mejor = -GANA - 1;
+			celda = -1;
+			n = ordenar(nivel, d != 0 ? celdaDe(d) : -1);
+			for (int i=0; i<n; i++) {
+				t.poner(jugadas[nivel][i]);
+				int v = -negamax(prof-1, nivel+1, -beta, -alfa);
+				t.quitar();
+				if (abortar())
+					return 0;
+				if (v > mejor) {
+					mejor = v;
+					celda = jugadas[nivel][i];
+					if (v > alfa)
+						alfa = v;
+					if (alfa >= beta)
+						break;
+				}
+			}
+
+			if (mejor <= alfaInicial)
+				tipo = COTA_SUPERIOR;
+			else if (mejor >= beta)
+				tipo = COTA_INFERIOR;
+			else tipo = EXACTO;
+			guardar(t.hash(), aTabla(mejor, nivel), prof, tipo, celda);
+			return mejor;
+		}
+
+		/**
+		 * Escribe en <code>jugadas[nivel]</code> las celdas vacas en el orden del hilo, con
+		 * la celda de la tabla de transposicin (si hay) en primer lugar
+		 * @param nivel distancia a la raz
+		 * @param primera celda a probar primero o -1
+		 * @return el nmero de jugadas
+		 */
+		int ordenar (int nivel, int primera) {
+			int n;
+
+			n = 0;
+			if (primera >= 0 && t.casillaVacia(primera))
+				jugadas[nivel][n++] = primera;
+			for (int c : orden)
+				if (c != primera && t.casillaVacia(c))
+					jugadas[nivel][n++] = c;
+			return n;
+		}
+
+		/**
+		 * Evaluacin heurstica: cada lnea de k celdas con fichas de un solo jugador
+		 * suma (o resta) ms cuantas ms fichas tiene
+		 * @return el valor para el jugador al que le toca mover
+		 */
+		int evaluar () {
+			int v;
+
+			v = 0;
+			for (int[] ventana : ventanas) {
+				int x = 0, o = 0;
+				for (int c : ventana)
+					if (t.celdas[c] == 1)
+						x++;
+					else if (t.celdas[c] == 2)
+						o++;
+				if (o == 0 && x > 0)
+					v += 1 << (2*Math.min(x, 10));
+				else if (x == 0 && o > 0)
+					v -= 1 << (2*Math.min(o, 10));
+			}
+			return t.turno() == Contenido.CRUZ ? v : -v;
+		}
+	}
+
+	/**
+	 * Orden de las celdas de un hilo: del centro hacia fuera, y en los auxiliares con
+	 * una perturbacin aleatoria distinta para cada uno
+	 * @param t <code>TableroMNK</code>
+	 * @param id identificador del hilo
+	 * @return las celdas en el orden en que se prueban
+	 */
+	static int[] orden (TableroMNK t, int id) {
+		int[] orden;
+		double[] clave;
+		Random aleatorio;
+
+		aleatorio = new Random(id);
+		orden = new int[t.numCeldas()];
+		clave = new double[t.numCeldas()];
+		for (int c=0; c<orden.length; c++) {
+			double df = c / t.columnas - (t.filas-1) / 2.0, dc = c % t.columnas - (t.columnas-1) / 2.0;
+			orden[c] = c;
+			clave[c] = Math.max(Math.abs(df), Math.abs(dc)) + (id == 0 ? 0 : 1.5*aleatorio.nextDouble());
+		}
+		// Ordenacin por insercin (pocas celdas)
+		for (int i=1; i<orden.length; i++)
+			for (int j=i; j>0 && clave[orden[j]] < clave[orden[j-1]]; j--) {
+				int aux = orden[j];
+				orden[j] = orden[j-1];
+				orden[j-1] = aux;
+			}
+		return orden;
+	}
+
+	/**
+	 * Ajusta una victoria para guardarla como distancia desde la posicin, no desde la raz
+	 */
+	static int aTabla (int v, int nivel) {
+		return v > GANA/2 ? v + nivel : v < -GANA/2 ? v - nivel : v;
+	}
+
+	/**
+	 * Deshace el ajuste de <code>aTabla</code>
+	 */
+	static int desdeTabla (int v, int nivel) {
+		return v > GANA/2 ? v - nivel : v < -GANA/2 ? v + nivel : v;
+	}
+
+	/**
+	 * Busca la jugada de un tablero m,n,k vaco con 1 hilo y con varios, e informa del
+	 * tiempo y los nodos de cada bsqueda.
+	 * @param args filas, columnas, k, profundidad y nmero de hilos (por defecto 5 5 4 7 y
+	 * el nmero de procesadores)
+	 */
+	public static void main (String[] args) {
+		TableroMNK t;
+		int profundidad, hilos;
+
+		t = args.length >= 3 ?
+				new TableroMNK(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2])) :
+				new TableroMNK(5, 5, 4);
+		profundidad = args.length >= 4 ? Integer.parseInt(args[3]) : 7;
+		hilos = args.length >= 5 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+		for (int h : new int[] {1, hilos}) {
+			BusquedaSMP busqueda;
+			long inicio;
+
+			busqueda = new BusquedaSMP(22, h);
+			inicio = System.currentTimeMillis();
+			busqueda.buscar(t, profundidad);
+			System.out.println(h + " hilo(s): " + (System.currentTimeMillis() - inicio) + " ms, "
+					+ busqueda.nodos + " nodos, valor " + busqueda.valor);
+			t.movimiento(busqueda.mejorCelda, busqueda.valor).print();
+			busqueda.cerrar();
+		}
+	}
+}
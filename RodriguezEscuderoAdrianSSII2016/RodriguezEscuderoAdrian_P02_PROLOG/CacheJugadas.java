@@ -0,0 +1,325 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+
+/**
+ * Clase que guarda la jugada elegida por las bsquedas de los jugadores mquina para
+ * que varias partidas (o varias sesiones de un servidor) que llegan a la misma posicin
+ * con la misma profundidad no repitan la bsqueda. La clave de cada entrada rene la
+ * clave del tablero, la ficha que mueve, la profundidad, el algoritmo de bsqueda y los
+ * ajustes del motor que pueden cambiar la jugada (evaluacin por lotes y nmero de
+ * hilos), y el valor es el <code>Movimiento</code> empaquetado en un <code>long</code>.
+ * As dos jugadores con ajustes distintos que comparten la cach no se devuelven
+ * jugadas el uno al otro.
+ * <p>
+ * La memoria est acotada en bytes (con un tamao estimado por entrada) y se reparte
+ * entre varios segmentos, cada uno con su cerrojo, para que los hilos no compitan por
+ * un nico cerrojo. Cada segmento sigue una poltica LRU segmentada: las entradas
+ * nuevas entran en un tramo de prueba y slo pasan al tramo protegido (el 80% de la
+ * capacidad) si se vuelven a pedir, de forma que una rfaga de posiciones vistas una
+ * sola vez no expulsa a las posiciones populares.
+ * @since Oct 2026
+ * @version 1.0
+ * @see Jugador
+ */
+public class CacheJugadas {
+	public static final int MINIMAX = 0;	// Bsqueda de Jugador.buscaJugada
+	public static final int SMP = 1;		// Bsqueda de Jugador.buscaJugadaSMP
+	static final int BYTES_ENTRADA = 88;	// Entrada de LinkedHashMap, clave y valor Long
+	static final int NUM_SEGMENTOS = 16;	// Potencia de 2
+
+	Segmento[] segmentos;			// Segmentos de la cach
+	public final long capacidadBytes;	// Memoria mxima ocupada por las entradas
+	public AtomicLong aciertos;		// Consultas que encontraron la jugada
+	public AtomicLong fallos;		// Consultas que no la encontraron
+	public AtomicLong desalojos;	// Entradas expulsadas por falta de espacio
+
+	/**
+	 * Segmento con su cerrojo y sus dos tramos, ambos en orden de acceso (el primero
+	 * es el menos reciente)
+	 */
+	static class Segmento {
+		ReentrantLock cerrojo;
+		LinkedHashMap<Long, Long> prueba;		// Entradas pedidas una sola vez
+		LinkedHashMap<Long, Long> protegido;	// Entradas pedidas ms de una vez
+		int capacidad;							// Entradas mximas del segmento
+		int capacidadProtegido;					// Entradas mximas del tramo protegido
+
+		Segmento (int c) {
+			cerrojo = new ReentrantLock();
+			prueba = new LinkedHashMap<Long, Long>(16, 0.75f, true);
+			protegido = new LinkedHashMap<Long, Long>(16, 0.75f, true);
+			capacidad = c;
+			capacidadProtegido = Math.max(1, c*4/5);
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * @param bytes memoria mxima para las entradas (al menos una por segmento)
+	 */
+	public CacheJugadas (long bytes) {
+		int porSegmento;
+
+		if (bytes <= 0)
+			throw new IllegalArgumentException("La capacidad debe ser positiva");
+		porSegmento = (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes / BYTES_ENTRADA / NUM_SEGMENTOS));
+		capacidadBytes = (long) porSegmento * NUM_SEGMENTOS * BYTES_ENTRADA;
+		segmentos = new Segmento[NUM_SEGMENTOS];
+		for (int i=0; i<NUM_SEGMENTOS; i++)
+			segmentos[i] = new Segmento(porSegmento);
+		aciertos = new AtomicLong();
+		fallos = new AtomicLong();
+		desalojos = new AtomicLong();
+	}
+
+	/**
+	 * @param t <code>Tablero</code> en el que hay que mover
+	 * @param ficha <code>Contenido</code> con la ficha del jugador que mueve
+	 * @param profundidad profundidad mxima de la bsqueda
+	 * @param algoritmo <code>MINIMAX</code> o <code>SMP</code>
+	 * @param lotes <code>true</code> si la bsqueda evala las hojas por lotes
+	 * @param hilos nmero de hilos de la bsqueda (menos de 65536)
+	 * @return la clave de la bsqueda en la cach: tablero en los bits 0-17, ficha en
+	 * 18-19, algoritmo en 20-23, profundidad en 24-31, lotes en el 32 e hilos en 33-48
+	 */
+	public static long clave (Tablero t, Contenido ficha, int profundidad, int algoritmo, boolean lotes, int hilos) {
+		return t.clave() | ((long) ficha.ordinal() << 18) | ((long) algoritmo << 20) | ((long) profundidad << 24)
+				| ((lotes ? 1L : 0L) << 32) | ((long) hilos << 33);
+	}
+
+	/**
+	 * @param clave clave de la bsqueda
+	 * @return el segmento en el que se guarda la clave
+	 */
+	Segmento segmento (long clave) {
+		long h = clave * 0x9E3779B97F4A7C15L;
+		return segmentos[(int) (h >>> 60) & (NUM_SEGMENTOS-1)];
+	}
+
+	/**
+	 * Busca una jugada en la cach
+	 * @param clave clave de la bsqueda
+	 * @return una copia del <code>Movimiento</code> guardado o <code>null</code> si no est
+	 */
+	public Movimiento obtener (long clave) {
+		Segmento s;
+		Long v;
+
+		s = segmento(clave);
+		s.cerrojo.lock();
+		try {
+			v = s.protegido.get(clave);
+			if (v == null) {
+				v = s.prueba.remove(clave);
+				if (v != null) {
+					// Segunda peticin: pasa al tramo protegido, que devuelve su entrada
+					// menos reciente al tramo de prueba si se llena
+					s.protegido.put(clave, v);
+					if (s.protegido.size() > s.capacidadProtegido) {
+						Iterator<Map.Entry<Long, Long>> it = s.protegido.entrySet().iterator();
+						Map.Entry<Long, Long> e = it.next();
+						it.remove();
+						s.prueba.put(e.getKey(), e.getValue());
+					}
+				}
+			}
+		} finally {
+			s.cerrojo.unlock();
+		}
+		if (v == null) {
+			fallos.incrementAndGet();
+			return null;
+		}
+		aciertos.incrementAndGet();
+		return desempaquetar(v);
+	}
+
+	/**
+	 * Guarda una jugada en la cach, expulsando la entrada menos reciente del tramo de
+	 * prueba si el segmento est lleno
+	 * @param clave clave de la bsqueda
+	 * @param m <code>Movimiento</code> elegido por la bsqueda
+	 */
+	public void guardar (long clave, Movimiento m) {
+		Segmento s;
+
+		s = segmento(clave);
+		s.cerrojo.lock();
+		try {
+			if (s.protegido.containsKey(clave)) {
+				s.protegido.put(clave, empaquetar(m));
+				return;
+			}
+			s.prueba.put(clave, empaquetar(m));
+			if (s.prueba.size() + s.protegido.size() > s.capacidad) {
+				Iterator<Long> it = (s.prueba.isEmpty() ? s.protegido : s.prueba).keySet().iterator();
+				it.next();
+				it.remove();
+				desalojos.incrementAndGet();
+			}
+		} finally {
+			s.cerrojo.unlock();
+		}
+	}
+
+	/**
+	 * @return nmero de entradas de la cach
+	 */
+	public long entradas () {
+		long n;
+
+		n = 0;
+		for (Segmento s : segmentos) {
+			s.cerrojo.lock();
+			try {
+				n += s.prueba.size() + s.protegido.size();
+			} finally {
+				s.cerrojo.unlock();
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * @return memoria estimada ocupada por las entradas, en bytes
+	 */
+	public long bytes () {
+		return entradas() * BYTES_ENTRADA;
+	}
+
+	/**
+	 * @return fraccin de consultas que encontraron la jugada (0 si no ha habido ninguna)
+	 */
+	public double tasaAciertos () {
+		long a = aciertos.get(), total = a + fallos.get();
+		return total == 0 ? 0 : (double) a / total;
+	}
+
+	/**
+	 * @return los contadores de la cach en una lnea de texto
+	 */
+	public String toString () {
+		return "aciertos=" + aciertos + " fallos=" + fallos + " desalojos=" + desalojos
+				+ " tasa=" + String.format("%.3f", tasaAciertos()) + " bytes=" + bytes() + "/" + capacidadBytes;
+	}
+
+	/**
+	 * @param m <code>Movimiento</code> a guardar
+	 * @return fila, columna y valor del movimiento en un <code>long</code>
+	 */
+	static long empaquetar (Movimiento m) {
+		return ((long) (m.fila & 0xFFFF) << 48) | ((long) (m.columna & 0xFFFF) << 32) | (m.valor & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @param v movimiento empaquetado con <code>empaquetar</code>
+	 * @return un <code>Movimiento</code> nuevo con la fila, columna y valor guardados
+	 */
+	static Movimiento desempaquetar (long v) {
+		return new Movimiento((short) (v >>> 48), (short) (v >>> 32), (int) v);
+	}
+
+	/**
+	 * Simula varias sesiones simultneas en las que un jugador mquina responde a
+	 * jugadas al azar, con todas las sesiones compartiendo una cach, e informa del
+	 * tiempo empleado con y sin la cach y de sus contadores.
+	 * @param args nmero de partidas (por defecto 2000), profundidad (por defecto 5),
+	 * hilos (por defecto el nmero de procesadores) y capacidad en bytes (por defecto 64 KB)
+	 */
+	public static void main (String[] args) {
+		int partidas, profundidad, hilos;
+		long bytes, sin, con;
+		CacheJugadas cache;
+
+		partidas = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		profundidad = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		hilos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		bytes = args.length > 3 ? Long.parseLong(args[3]) : 64*1024;
+		try {
+			sin = simular(partidas, profundidad, hilos, null);
+			cache = new CacheJugadas(bytes);
+			con = simular(partidas, profundidad, hilos, cache);
+			System.out.println(partidas + " partidas a profundidad " + profundidad + " en " + hilos + " hilos");
+			System.out.println("Sin cach: " + sin + " ms");
+			System.out.println("Con cach: " + con + " ms (" + cache + ")");
+		} catch (Exception e) {
+			System.out.println("ERROR simulando las sesiones");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Juega partidas entre un jugador al azar (X) y un jugador mquina (O)
+	 * @return milisegundos empleados
+	 */
+	static long simular (final int partidas, final int profundidad, int hilos, final CacheJugadas cache)
+			throws InterruptedException, ExecutionException {
+		ExecutorService ejecutor;
+		Future<?>[] sesiones;
+		long inicio;
+
+		ejecutor = Executors.newFixedThreadPool(hilos, new ThreadFactory() {
+			public Thread newThread (Runnable r) {
+				Thread t = new Thread(r, "sesion");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		inicio = System.currentTimeMillis();
+		sesiones = new Future<?>[hilos];
+		for (int h=0; h<hilos; h++) {
+			final int primera = h, paso = hilos;
+			sesiones[h] = ejecutor.submit(new Callable<Void>() {
+				public Void call () {
+					Jugador maquina = new Jugador(Jugador.Tipo.MAQUINA, Contenido.REDONDEL);
+					maquina.cache = cache;
+					for (int p=primera; p<partidas; p+=paso) {
+						Random aleatorio = new Random(p);
+						Tablero t = new Tablero();
+						Contenido mueve = Contenido.CRUZ;
+						while (!t.ganador() && !t.completo()) {
+							int fil, col;
+							if (mueve == Contenido.CRUZ) {
+								do {
+									fil = aleatorio.nextInt(Tablero.DIM);
+									col = aleatorio.nextInt(Tablero.DIM);
+								} while (!t.casillaVacia(fil, col));
+							} else {
+								Movimiento m = maquina.buscaJugada(t, profundidad);
+								fil = m.obtenerFila();
+								col = m.obtenerColumna();
+								// Si todas las jugadas pierden, max no elige ninguna
+								for (int c=0; fil < 0; c++)
+									if (t.casillaVacia(c / Tablero.DIM, c % Tablero.DIM)) {
+										fil = c / Tablero.DIM;
+										col = c % Tablero.DIM;
+									}
+							}
+							t = t.poner(fil, col, mueve);
+							mueve = maquina.fichaOponente(mueve);
+						}
+					}
+					return null;
+				}
+			});
+		}
+		for (Future<?> f : sesiones)
+			f.get();
+		ejecutor.shutdownNow();
+		return System.currentTimeMillis() - inicio;
+	}
+}
@@ -0,0 +1,301 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.util.Random;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+
+/**
+ * Clase que evala a la vez un lote de posiciones con la misma funcin que
+ * <code>Tablero.evaluacion</code> (lneas dominadas por MAX menos lneas dominadas por
+ * MIN, o el valor mximo/mnimo si alguien ha ganado). Cada posicin se guarda como dos
+ * mscaras de bits (celdas con X y celdas con O) en vectores <code>long[]</code>
+ * paralelos, y cada lnea de <code>k</code> celdas del tablero es otra mscara, de forma
+ * que comprobar si una lnea est dominada o completa es una operacin AND y una
+ * comparacin, sin recorrer celdas ni comparar enumerados. El bucle interno recorre
+ * todas las posiciones del lote para una misma lnea, sin saltos dependientes de los
+ * datos.
+ * <p>
+ * Hay una versin opcional de ese bucle con la Vector API (<code>LongVector</code>), en
+ * la que cada instruccin procesa tantas posiciones como carriles de 64 bits tenga el
+ * procesador. Est en <code>vectorial/RecuentoVectorial.java</code>, fuera del resto del
+ * paquete, porque la Vector API es un mdulo en incubacin en Java 17: el paquete se
+ * compila sin ella y, para usarla, hay que aadir el fichero y el mdulo:
+ * <pre>
+ * javac --add-modules jdk.incubator.vector ... *.java vectorial/*.java
+ * java --add-modules jdk.incubator.vector ...
+ * </pre>
+ * La clase se carga por reflexin; si no est compilada o falta el mdulo se utiliza el
+ * bucle escalar.
+ * <p>
+ * Admite tableros de hasta 64 celdas (el 3x3 de <code>Tablero</code> o un
+ * <code>TableroMNK</code> de ese tamao).
+ * @since Oct 2026
+ * @version 1.0
+ * @see Tablero
+ * @see TableroMNK
+ */
+public class EvaluacionLotes {
+	// Recuento con la Vector API (null si no se ha compilado o falta el mdulo)
+	static final Recuento VECTORIAL = cargarVectorial();
+
+	public final int filas;			// Nmero de filas del tablero
+	public final int columnas;		// Nmero de columnas del tablero
+	public final int k;				// Fichas en lnea necesarias para ganar
+	long[] lineas;					// Mscara de cada lnea de k celdas
+	public long[] cruces;			// Celdas con X de cada posicin del lote
+	public long[] redondeles;		// Celdas con O de cada posicin del lote
+	public int n;					// Nmero de posiciones del lote
+	public int[] valores;			// Valor de evaluacin de cada posicin
+	public byte[] ganador;			// Ordinal del Contenido del ganador de cada posicin (0 si no hay)
+	long[] dominadasX, dominadasO;	// Lneas dominadas por cada ficha en cada posicin
+	long[] completas;				// Lneas completas de cada posicin: bit 1 de X, bit 2 de O
+
+	/**
+	 * Recuento de las lneas dominadas por cada ficha y de las lneas completas de las
+	 * posiciones de un lote (lo implementa <code>RecuentoVectorial</code>)
+	 */
+	interface Recuento {
+		/**
+		 * @return posiciones que se procesan a la vez (los vectores del lote deben tener
+		 * una longitud mltiplo de este nmero)
+		 */
+		int carriles ();
+
+		/**
+		 * Suma a <code>dominadasX</code>, <code>dominadasO</code> y <code>completas</code>
+		 * las lneas de las <code>n</code> primeras posiciones
+		 */
+		void contar (long[] lineas, long[] cruces, long[] redondeles, int n,
+				long[] dominadasX, long[] dominadasO, long[] completas);
+	}
+
+	/**
+	 * @return el recuento con la Vector API o <code>null</code> si no se puede cargar
+	 */
+	static Recuento cargarVectorial () {
+		try {
+			return (Recuento) Class.forName("org.ssii.busqueda.juegos.tresenraya.RecuentoVectorial")
+					.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			return null;	// no se ha compilado vectorial/RecuentoVectorial.java
+		} catch (LinkageError e) {
+			return null;	// falta --add-modules jdk.incubator.vector
+		}
+	}
+
+	/**
+	 * Constructor. Calcula las mscaras de las lneas del tablero.
+	 * @param f nmero de filas
+	 * @param c nmero de columnas
+	 * @param enLinea fichas en lnea necesarias para ganar
+	 * @param capacidad nmero inicial de posiciones del lote
+	 */
+	public EvaluacionLotes (int f, int c, int enLinea, int capacidad) {
+		int num;
+
+		if (f*c > 64)
+			throw new IllegalArgumentException("Se admiten como mximo 64 celdas");
+		filas = f;
+		columnas = c;
+		k = enLinea;
+		lineas = new long[4*f*c];
+		num = 0;
+		for (int fil=0; fil<f; fil++)
+			for (int col=0; col<c; col++)
+				for (int[] d : TableroMNK.DIRECCIONES) {
+					int ff = fil + (k-1)*d[0], cf = col + (k-1)*d[1];
+					if (ff < 0 || ff >= f || cf < 0 || cf >= c)
+						continue;
+					long m = 0;
+					for (int i=0; i<k; i++)
+						m |= 1L << ((fil + i*d[0])*c + col + i*d[1]);
+					lineas[num++] = m;
+				}
+		lineas = java.util.Arrays.copyOf(lineas, num);
+		reservar(Math.max(capacidad, 1));
+	}
+
+	/**
+	 * Ampla los vectores del lote (hasta un mltiplo del nmero de carriles)
+	 * @param capacidad nuevo nmero mximo de posiciones
+	 */
+	void reservar (int capacidad) {
+		int carriles = VECTORIAL != null ? VECTORIAL.carriles() : 1;
+
+		capacidad = (capacidad + carriles - 1) / carriles * carriles;
+		cruces = cruces == null ? new long[capacidad] : java.util.Arrays.copyOf(cruces, capacidad);
+		redondeles = redondeles == null ? new long[capacidad] : java.util.Arrays.copyOf(redondeles, capacidad);
+		valores = new int[capacidad];
+		ganador = new byte[capacidad];
+		dominadasX = new long[capacidad];
+		dominadasO = new long[capacidad];
+		completas = new long[capacidad];
+	}
+
+	/**
+	 * Vaca el lote
+	 */
+	public void vaciar () {
+		n = 0;
+	}
+
+	/**
+	 * Aade una posicin dada por sus mscaras de bits (celda = fila*columnas + columna)
+	 * @param x celdas ocupadas por X
+	 * @param o celdas ocupadas por O
+	 * @return posicin de la posicin dentro del lote
+	 */
+	public int anadir (long x, long o) {
+		if (n == cruces.length)
+			reservar(2*n);
+		cruces[n] = x;
+		redondeles[n] = o;
+		return n++;
+	}
+
+	/**
+	 * Aade un <code>Tablero</code> del Tres en Raya (el lote debe ser de 3x3)
+	 * @param t <code>Tablero</code> a aadir
+	 * @return posicin del tablero dentro del lote
+	 */
+	public int anadir (Tablero t) {
+		long x, o;
+
+		x = o = 0;
+		for (int i=0; i<Tablero.DIM; i++)
+			for (int j=0; j<Tablero.DIM; j++)
+				if (t.tablero[i][j] == Contenido.CRUZ)
+					x |= 1L << (i*columnas + j);
+				else if (t.tablero[i][j] == Contenido.REDONDEL)
+					o |= 1L << (i*columnas + j);
+		return anadir(x, o);
+	}
+
+	/**
+	 * Aade un <code>TableroMNK</code> de las mismas dimensiones que el lote
+	 * @param t <code>TableroMNK</code> a aadir
+	 * @return posicin del tablero dentro del lote
+	 */
+	public int anadir (TableroMNK t) {
+		long x, o;
+
+		x = o = 0;
+		for (int c=0; c<t.celdas.length; c++)
+			if (t.celdas[c] == Contenido.CRUZ.ordinal())
+				x |= 1L << c;
+			else if (t.celdas[c] == Contenido.REDONDEL.ordinal())
+				o |= 1L << c;
+		return anadir(x, o);
+	}
+
+	/**
+	 * Evala todas las posiciones del lote desde el punto de vista de MAX, igual que
+	 * <code>Tablero.evaluacion</code>: si ha ganado MAX el valor es
+	 * <code>Integer.MAX_VALUE</code>, si ha ganado MIN <code>Integer.MIN_VALUE</code> y en
+	 * otro caso las lneas dominadas por MAX menos las dominadas por MIN. Los resultados
+	 * quedan en <code>valores</code> y <code>ganador</code>.
+	 * @param fichaMax <code>Contenido</code> con la ficha del jugador MAX
+	 * @throws IllegalArgumentException si en alguna posicin tienen lnea las dos fichas,
+	 * lo que no puede ocurrir en una partida
+	 */
+	public void evaluar (Contenido fichaMax) {
+		boolean maxCruz;
+
+		for (int i=0; i<n; i++) {
+			dominadasX[i] = 0;
+			dominadasO[i] = 0;
+			completas[i] = 0;
+		}
+		// Una lnea por pasada sobre todo el lote: sin saltos dependientes de los datos
+		if (VECTORIAL != null)
+			VECTORIAL.contar(lineas, cruces, redondeles, n, dominadasX, dominadasO, completas);
+		else {
+			for (long m : lineas) {
+				for (int i=0; i<n; i++) {
+					long x = cruces[i] & m;
+					long o = redondeles[i] & m;
+					dominadasX[i] += o == 0 ? 1 : 0;
+					dominadasO[i] += x == 0 ? 1 : 0;
+					completas[i] |= (x == m ? 1 : 0) | (o == m ? 2 : 0);
+				}
+			}
+		}
+		maxCruz = fichaMax == Contenido.CRUZ;
+		for (int i=0; i<n; i++) {
+			if (completas[i] == 3)
+				throw new IllegalArgumentException("Posicin " + i + " del lote imposible: las dos fichas tienen lnea");
+			ganador[i] = (byte) (completas[i] == 1 ? Contenido.CRUZ.ordinal() : completas[i] == 2 ? Contenido.REDONDEL.ordinal() : 0);
+			if (ganador[i] != 0)
+				valores[i] = (ganador[i] == Contenido.CRUZ.ordinal()) == maxCruz ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+			else valores[i] = (int) (maxCruz ? dominadasX[i] - dominadasO[i] : dominadasO[i] - dominadasX[i]);
+		}
+	}
+
+	/**
+	 * @param x celdas ocupadas por X
+	 * @param o celdas ocupadas por O
+	 * @return <code>true</code> si las dos fichas tienen alguna lnea completa
+	 */
+	boolean ambasConLinea (long x, long o) {
+		boolean lineaX, lineaO;
+
+		lineaX = lineaO = false;
+		for (long m : lineas) {
+			lineaX |= (x & m) == m;
+			lineaO |= (o & m) == m;
+		}
+		return lineaX && lineaO;
+	}
+
+	/**
+	 * Compara la evaluacin por lotes con <code>Tablero.evaluacion</code> sobre posiciones
+	 * aleatorias del 3x3 (descartando las que tienen lnea de las dos fichas) e informa de
+	 * las posiciones evaluadas por segundo de cada forma.
+	 * @param args nmero de posiciones (por defecto 1.000.000)
+	 */
+	public static void main (String[] args) {
+		int num;
+		Tablero[] tableros;
+		EvaluacionLotes lote;
+		Random aleatorio;
+		long inicio, suma, msEscalar, msLote;
+
+		num = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		aleatorio = new Random(1);
+		tableros = new Tablero[num];
+		lote = new EvaluacionLotes(Tablero.DIM, Tablero.DIM, 3, num);
+		for (int p=0; p<num; p++) {
+			int pos;
+			do {
+				tableros[p] = new Tablero();
+				for (int i=0; i<Tablero.DIM; i++)
+					for (int j=0; j<Tablero.DIM; j++)
+						tableros[p].tablero[i][j] = Contenido.values()[aleatorio.nextInt(3)];
+				pos = lote.anadir(tableros[p]);
+				if (lote.ambasConLinea(lote.cruces[pos], lote.redondeles[pos]))
+					lote.n--;
+			} while (lote.n == pos);
+		}
+
+		msEscalar = msLote = Long.MAX_VALUE;
+		suma = 0;
+		for (int r=0; r<5; r++) {
+			inicio = System.nanoTime();
+			for (int p=0; p<num; p++)
+				suma += tableros[p].evaluacion(Contenido.CRUZ, true);
+			msEscalar = Math.min(msEscalar, (System.nanoTime() - inicio) / 1000000);
+			inicio = System.nanoTime();
+			lote.evaluar(Contenido.CRUZ);
+			msLote = Math.min(msLote, (System.nanoTime() - inicio) / 1000000);
+		}
+
+		for (int p=0; p<num; p++) {
+			if (lote.valores[p] != tableros[p].evaluacion(Contenido.CRUZ, true))
+				throw new IllegalStateException("Evaluacin distinta en la posicin " + p);
+		}
+		System.out.println("Evaluacin por lotes correcta en " + num + " posiciones (" + suma + ")");
+		System.out.println("Tablero.evaluacion: " + msEscalar + " ms, " + (num * 1000L / Math.max(msEscalar, 1)) + " posiciones/s");
+		System.out.println("EvaluacionLotes:    " + msLote + " ms, " + (num * 1000L / Math.max(msLote, 1)) + " posiciones/s"
+				+ (VECTORIAL != null ? " (Vector API, " + VECTORIAL.carriles() + " carriles)" : " (escalar)"));
+	}
+}
@@ -3,6 +3,8 @@ package org.ssii.busqueda.juegos.tresenraya;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
 
@@ -22,6 +24,25 @@ public class Jugador {
 	
 	public Tipo tipo;					 // Tipo de jugador		
 	public Contenido ficha;				 // Ficha asignada al jugador
+	public boolean evaluacionPorLotes;	 // Evaluar juntas las hojas hermanas (EvaluacionLotes)
+	public AtomicLong nodos;			 // Nodos visitados por las bsquedas de buscaJugada del jugador
+	public CacheJugadas cache;			 // Jugadas ya buscadas, compartidas entre jugadores (o null)
+	BusquedaSMP busquedaSMP;			 // Motor de buscaJugadaSMP, con su tabla para toda la partida (o null)
+	
+	// Nodos de cada hilo: {nodos visitados, nodos de su ltima bsqueda}. Cada bsqueda se
+	// mide en el hilo que la hace, sin mezclar las de los hilos de ponderacin.
+	static final ThreadLocal<long[]> NODOS_HILO = new ThreadLocal<long[]>() {
+		protected long[] initialValue () {
+			return new long[2];
+		}
+	};
+	
+	// Lote de evaluacin de cada hilo (las bsquedas pueden hacerse desde varios hilos)
+	static final ThreadLocal<EvaluacionLotes> LOTE = new ThreadLocal<EvaluacionLotes>() {
+		protected EvaluacionLotes initialValue () {
+			return new EvaluacionLotes(Tablero.DIM, Tablero.DIM, 3, Tablero.DIM*Tablero.DIM);
+		}
+	};
 	
 	/**
 	 * Constructor. Define el tipo de jugador y la ficha que utiliza
@@ -31,6 +52,8 @@ public class Jugador {
 	public Jugador (Tipo t, Contenido f) {
 		tipo = t;
 		ficha = f;
+		evaluacionPorLotes = true;
+		nodos = new AtomicLong();
 	}
 	
 	/**
@@ -90,12 +113,16 @@ public class Jugador {
 	 * @param nivel en el rbol de bsqueda (la raz se sita en el nivel 0)
 	 * @param profundidad mxima para la bsqueda
 	 * @return el mejor <code>Movimiento</code> encontrado
+	 * @throws CancellationException si se interrumpe el hilo (bsqueda anticipada descartada)
 	 * @see Movimiento min (Tablero t, Contenido ficha, int nivel, int profundidad)
 	 * @see Movimiento maximo (Movimiento m1, Movimiento m2)
 	 */
 	public Movimiento max (Tablero t, Contenido ficha, int nivel, int profundidad) {
 		Movimiento mejor;
 		
+		if (Thread.currentThread().isInterrupted())
+			throw new CancellationException("Bsqueda cancelada");
+		NODOS_HILO.get()[0]++;
 		mejor = new Movimiento (true);
 		if (nivel!=0)
 			mejor.fijarPosicion(t.movimiento.fila, t.movimiento.columna);
@@ -108,6 +135,12 @@ public class Jugador {
 			ArrayList<Tablero> sucesores;
 			sucesores = new ArrayList<Tablero>();
 			sucesores = t.jugadas(ficha, true);
+			if (evaluacionPorLotes && nivel+1 == profundidad) // los sucesores son hojas: evaluarlos juntos
+				for (Movimiento m : evaluarHojas(sucesores, ficha)) {
+					mejor = maximo (mejor, m);
+					if (nivel > 0)
+						mejor.fijarPosicion(t.movimiento.fila, t.movimiento.columna);
+				}
 			while (!sucesores.isEmpty()) {
 				Tablero nt = sucesores.remove(0);
 				mejor = maximo (mejor, min(nt, fichaOponente(ficha), nivel+1, profundidad));
@@ -139,12 +172,16 @@ public class Jugador {
 	 * @param nivel en el rbol de bsqueda (la raz se sita en el nivel 0)
 	 * @param profundidad mxima para la bsqueda
 	 * @return el mejor <code>Movimiento</code> encontrado
+	 * @throws CancellationException si se interrumpe el hilo (bsqueda anticipada descartada)
 	 * @see Movimiento max (Tablero t, Contenido ficha, int nivel, int profundidad)
 	 * @see Movimiento minimo (Movimiento m1, Movimiento m2)
 	 */
 	public Movimiento min (Tablero t, Contenido ficha, int nivel, int profundidad) {
 		Movimiento mejor;
 		
+		if (Thread.currentThread().isInterrupted())
+			throw new CancellationException("Bsqueda cancelada");
+		NODOS_HILO.get()[0]++;
 		mejor = new Movimiento (false);
 		if (nivel!=0)
 			mejor.fijarPosicion(t.movimiento.fila, t.movimiento.columna);
@@ -157,6 +194,12 @@ public class Jugador {
 			ArrayList<Tablero> sucesores;
 			sucesores = new ArrayList<Tablero>();
 			sucesores = t.jugadas(ficha, false);
+			if (evaluacionPorLotes && nivel+1 == profundidad) // los sucesores son hojas: evaluarlos juntos
+				for (Movimiento m : evaluarHojas(sucesores, fichaOponente(ficha))) {
+					mejor = minimo (mejor, m);
+					if (nivel > 0)
+						mejor.fijarPosicion(t.movimiento.fila, t.movimiento.columna);
+				}
 			while (!sucesores.isEmpty()) {
 				Tablero nt = sucesores.remove(0);
 				mejor = minimo (mejor, max (nt, fichaOponente(ficha), nivel+1, profundidad));
@@ -168,6 +211,31 @@ public class Jugador {
 		return mejor;
 	}
 
+	/**
+	 * Evala a la vez un conjunto de hojas hermanas del rbol de bsqueda, obteniendo
+	 * los mismos valores que <code>Tablero.evaluacion</code> desde el punto de vista de MAX
+	 * @param hojas <code>Tablero</code>s a evaluar (la lista se vaca)
+	 * @param fichaMax <code>Contenido</code> que indica la ficha del jugador MAX
+	 * @return el <code>Movimiento</code> de cada hoja con su valor, en el mismo orden
+	 * @see EvaluacionLotes
+	 */
+	Movimiento[] evaluarHojas (ArrayList<Tablero> hojas, Contenido fichaMax) {
+		EvaluacionLotes lote;
+		Movimiento[] movimientos;
+		
+		NODOS_HILO.get()[0] += hojas.size();
+		lote = LOTE.get();
+		lote.vaciar();
+		for (Tablero h : hojas)
+			lote.anadir(h);
+		lote.evaluar(fichaMax);
+		movimientos = new Movimiento[hojas.size()];
+		for (int i=0; i<movimientos.length; i++)
+			movimientos[i] = new Movimiento (hojas.get(i).movimiento.fila, hojas.get(i).movimiento.columna, lote.valores[i]);
+		hojas.clear();
+		return movimientos;
+	}
+
 	/**
 	 * Busca una jugada aplicando el algoritmo minimax
 	 * @param t <code>Tablero</code> (que indica la situacin actual de la partida)
@@ -175,18 +243,112 @@ public class Jugador {
 	 * @param profundidad profundidad mxima para la bsqueda
 	 * @return el mejor <code>Movimiento</code> encontrado
 	 * @see Movimiento max (Tablero tablero, Contenido ficha, int profundidad)
+	 * @see #nodosUltimaBusqueda()
+	 * @see CacheJugadas
 	 */
 	public Movimiento buscaJugada (Tablero t, int profundidad) {
 		Movimiento movimiento;
 		Tablero tablero_actual;
+		long clave, inicio;
+		long[] contador;
 		
+		contador = NODOS_HILO.get();
+		contador[1] = 0;
+		clave = 0;
+		if (cache != null) {
+			clave = CacheJugadas.clave(t, ficha, profundidad, CacheJugadas.MINIMAX, evaluacionPorLotes, 1);
+			movimiento = cache.obtener(clave);
+			if (movimiento != null)
+				return movimiento;
+		}
 		movimiento = new Movimiento();
 		tablero_actual = new Tablero(t);
 		tablero_actual.movimiento = new Movimiento(true);
-		movimiento = max (tablero_actual, ficha, 0, profundidad);
+		inicio = contador[0];
+		try {
+			movimiento = max (tablero_actual, ficha, 0, profundidad);
+		} finally {		// tambin cuentan los nodos de una bsqueda cancelada
+			contador[1] = contador[0] - inicio;
+			nodos.addAndGet(contador[1]);
+		}
+		if (cache != null)
+			cache.guardar(clave, movimiento);
 		return movimiento;
 	}
 	
+	/**
+	 * @return los nodos de la ltima bsqueda de <code>buscaJugada</code> hecha por el
+	 * hilo que llama (0 si la jugada sali de la cach)
+	 */
+	public static long nodosUltimaBusqueda () {
+		return NODOS_HILO.get()[1];
+	}
+	
+	/**
+	 * Busca una jugada con una bsqueda alfa-beta repartida entre varios hilos que
+	 * comparten una tabla de transposicin (Lazy SMP). El valor del movimiento es el de
+	 * la bsqueda (<code>BusquedaSMP.GANA</code> menos los niveles hasta la victoria si
+	 * se gana con seguridad), no el de <code>Tablero.evaluacion</code>. El jugador conserva
+	 * el motor (sus hilos y su tabla de transposicin) de una jugada a la siguiente, hasta
+	 * que se llama a <code>cerrar</code>.
+	 * @param t <code>Tablero</code> (que indica la situacin actual de la partida)
+	 * a partir del cul comienza la bsqueda
+	 * @param profundidad profundidad mxima para la bsqueda
+	 * @param hilos nmero de hilos de bsqueda
+	 * @return el mejor <code>Movimiento</code> encontrado
+	 * @see BusquedaSMP
+	 * @see CacheJugadas
+	 */
+	public Movimiento buscaJugadaSMP (Tablero t, int profundidad, int hilos) {
+		TableroMNK tablero;
+		BusquedaSMP busqueda;
+		Movimiento movimiento;
+		int celda;
+		long clave;
+		
+		clave = 0;
+		if (cache != null) {
+			clave = CacheJugadas.clave(t, ficha, profundidad, CacheJugadas.SMP, false, hilos);	// BusquedaSMP no evala por lotes
+			movimiento = cache.obtener(clave);
+			if (movimiento != null)
+				return movimiento;
+		}
+		tablero = new TableroMNK(t, ficha);
+		busqueda = busquedaSMP(hilos);
+		synchronized (busqueda) {
+			celda = busqueda.buscar(tablero, profundidad);
+			movimiento = tablero.movimiento(celda, busqueda.valor);
+		}
+		if (cache != null)
+			cache.guardar(clave, movimiento);
+		return movimiento;
+	}
+	
+	/**
+	 * @param hilos nmero de hilos de bsqueda
+	 * @return el motor de <code>buscaJugadaSMP</code> (se crea al usarlo por primera vez
+	 * o si cambia el nmero de hilos)
+	 */
+	synchronized BusquedaSMP busquedaSMP (int hilos) {
+		if (busquedaSMP != null && busquedaSMP.numHilos != hilos) {
+			busquedaSMP.cerrar();
+			busquedaSMP = null;
+		}
+		if (busquedaSMP == null)
+			busquedaSMP = new BusquedaSMP(16, hilos);
+		return busquedaSMP;
+	}
+
+	/**
+	 * Libera los hilos del motor de <code>buscaJugadaSMP</code>
+	 */
+	public synchronized void cerrar () {
+		if (busquedaSMP != null) {
+			busquedaSMP.cerrar();
+			busquedaSMP = null;
+		}
+	}
+	
 	/**
 	 * Algoritmo para el jugador MAX que incorpora poda alfa-beta a la bsqueda minimax
 	 * @param t <code>Tablero</code> a partir del cul comienza la bsqueda
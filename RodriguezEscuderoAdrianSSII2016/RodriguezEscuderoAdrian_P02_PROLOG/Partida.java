@@ -22,6 +22,8 @@ public class Partida {
 	Jugador[] jugador;					// Jugadores
 	public static final int NRO_J = 2;	// Nmero de jugadores
 	public int profundidad;				// Lmite de profundidad en la bsqueda
+	Ponderacion ponderacion;			// Bsqueda en el tiempo del hombre (null si no se utiliza)
+	RegistroPartida registro;			// Jugadas y metadatos de la partida (null si no se registra)
 
 	/**
 	 * Constructor. Inicializa el tablero y la profundidad.
@@ -67,6 +69,38 @@ public class Partida {
 		}
 	}
 	
+	/**
+	 * Hace que la mquina busque sus respuestas mientras el hombre piensa su jugada
+	 * @param hilos nmero de hilos de bsqueda en segundo plano
+	 * @see Ponderacion
+	 */
+	public void activarPonderacion (int hilos) {
+		for (int j=0; j<NRO_J; j++)
+			if (jugador[j].tipo == Tipo.MAQUINA)
+				ponderacion = new Ponderacion(jugador[j], profundidad, hilos);
+	}
+
+	/**
+	 * Empieza a registrar la partida: jugadores y ajustes de la bsqueda de cada mquina
+	 * y, despus, cada jugada con su tiempo y los nodos de su bsqueda
+	 * @see RegistroPartida
+	 */
+	public void activarRegistro () {
+		registro = new RegistroPartida();
+		registro.anadir("fecha", Long.toString(System.currentTimeMillis()));
+		for (int j=0; j<NRO_J; j++)
+			registro.anadir(jugador[j].ficha == Contenido.CRUZ ? "X" : "O", jugador[j].tipo.toString());
+		registro.anadir("empieza", jugador[0].ficha == Contenido.CRUZ ? "X" : "O");
+		for (int j=0; j<NRO_J; j++)
+			if (jugador[j].tipo == Tipo.MAQUINA) {
+				String f = jugador[j].ficha == Contenido.CRUZ ? "X." : "O.";
+				registro.anadir(f + "algoritmo", "minimax");	// juega con buscaJugada
+				registro.anadir(f + "profundidad", Integer.toString(profundidad));
+				registro.anadir(f + "ponderar", ponderacion != null && ponderacion.maquina == jugador[j] ? "si" : "no");
+				registro.anadir(f + "lotes", jugador[j].evaluacionPorLotes ? "si" : "no");
+			}
+	}
+
 	/**
 	 * Comprueba si la partida ha finalizado	
 	 * @return <code>true</code> si la partida ha concluido
@@ -113,31 +147,51 @@ public class Partida {
 	public void juega (int j, BufferedReader br) {
 		Movimiento movimiento;
 		Tablero n_tablero;
+		long inicio, nodos;
+		boolean anticipada;
 		
+		inicio = System.currentTimeMillis();
+		nodos = 0;
+		anticipada = false;
 		// Obtiene la jugada del jugador
 		if (jugador[j].tipo == Tipo.HOMBRE)
 			movimiento = jugador[j].leeJugada(br);
-		else {
+		else if (ponderacion != null) {
+			movimiento = ponderacion.respuesta(tablero);
+			nodos = ponderacion.nodos;
+			anticipada = ponderacion.acierto;
+		} else {
 			movimiento = jugador[j].buscaJugada(tablero, profundidad); // no tiene en cuenta el turno, siempre max
+			nodos = Jugador.nodosUltimaBusqueda();
 		}
 		movimiento.print();
+		if (registro != null)
+			registro.anadir(movimiento.obtenerFila()*Tablero.DIM + movimiento.obtenerColumna(),
+					System.currentTimeMillis() - inicio, nodos, anticipada);
 		
 		// Ejecuta la jugada
 		n_tablero = new Tablero();
 		n_tablero = tablero.poner(movimiento.obtenerFila(), movimiento.obtenerColumna(), jugador[j].ficha);
         
 		tablero = new Tablero (n_tablero);
+
+		// Mientras el hombre piensa, buscar las respuestas a sus posibles jugadas
+		if (ponderacion != null && jugador[j].tipo == Tipo.MAQUINA && !acabada())
+			ponderacion.ponderar(tablero, jugador[(j+1)%NRO_J].ficha);
 	}
 	
 	/**
 	 * Desarrollo de una partida del juego del Tres en Raya en la que uno de los
 	 * jugadores utiliza la bsqueda minimax.
-	 * @param args no recibe argumentos
+	 * @param args <code>ponderar</code> para que la mquina busque sus respuestas en
+	 * segundo plano mientras el hombre piensa su jugada y <code>registro=fichero</code>
+	 * para aadir la partida al final de un fichero de registro
 	 */
 	public static void main(String[] args) {
 		Partida partida;
 		int turno_jugador;
 		BufferedReader ibr;
+		String fichero;
 		
 		try {
 			// Habilitar la lectura por consola
@@ -148,6 +202,14 @@ public class Partida {
 			
 			// Inicializar los jugadores: asignar fichas y turno
 			partida.inicializarJugadores(ibr);		
+			fichero = null;
+			for (String a : args)
+				if (a.equals("ponderar"))
+					partida.activarPonderacion(Runtime.getRuntime().availableProcessors());
+				else if (a.startsWith("registro="))
+					fichero = a.substring("registro=".length());
+			if (fichero != null)
+				partida.activarRegistro();
 		
 			// Jugar la partida
 			turno_jugador = -1;
@@ -160,6 +222,21 @@ public class Partida {
 			
 			// Mostrar el resultado de la partida
 			partida.resultado(turno_jugador);
+			if (partida.ponderacion != null) {
+				System.out.println(partida.ponderacion);
+				partida.ponderacion.cerrar();
+			}
+			for (Jugador j : partida.jugador)
+				j.cerrar();
+			if (partida.registro != null) {
+				partida.registro.anadir("resultado", partida.tablero.estado().toString());
+				try {
+					partida.registro.guardar(fichero);
+				} catch (IOException e) {
+					System.out.println("ERROR guardando el registro de la partida");
+					e.printStackTrace();
+				}
+			}
 			ibr.close();
 		} catch (IOException e) {
 			System.out.println("ERROR leyendo datos durante la partida");
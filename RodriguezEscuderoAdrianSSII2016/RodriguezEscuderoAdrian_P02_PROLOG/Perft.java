@@ -0,0 +1,264 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+
+/**
+ * Clase que recorre el rbol completo del juego a partir de una posicin (como el
+ * <i>perft</i> de los programas de ajedrez) y cuenta, en cada nivel, los nodos
+ * generados, las victorias de cada jugador y los empates. Sirve para comprobar que la
+ * generacin de jugadas (<code>jugadas</code>, <code>poner</code>) y la deteccin de
+ * posiciones terminales (<code>ganador</code>, <code>completo</code>) producen
+ * exactamente el rbol correcto, y para medir a qu velocidad lo hace cada
+ * representacin del tablero (<code>Tablero</code> y <code>TableroMNK</code>). Cualquier
+ * representacin nueva debe dar los mismos recuentos y se compara con la misma medida.
+ * <p>
+ * Desde el tablero vaco del 3x3 los recuentos se comprueban con los valores conocidos:
+ * 549.946 nodos y 255.168 partidas completas (131.184 las gana X, 77.904 las gana O y
+ * 46.080 terminan en empate).
+ * @since Oct 2026
+ * @version 1.0
+ * @see Tablero
+ * @see TableroMNK
+ */
+public class Perft {
+	// Valores conocidos del 3x3 desde el tablero vaco, por nivel (nmero de fichas)
+	static final long[] NODOS_3X3 = {1, 9, 72, 504, 3024, 15120, 54720, 148176, 200448, 127872};
+	static final long[] GANA_CRUZ_3X3 = {0, 0, 0, 0, 0, 1440, 0, 47952, 0, 81792};
+	static final long[] GANA_REDONDEL_3X3 = {0, 0, 0, 0, 0, 0, 5328, 0, 72576, 0};
+	static final long[] EMPATES_3X3 = {0, 0, 0, 0, 0, 0, 0, 0, 0, 46080};
+	public static final long PARTIDAS_3X3 = 255168;	// Partidas completas distintas del 3x3
+
+	public long[] nodos;			// Nodos generados en cada nivel
+	public long[] ganaCruz;			// Posiciones en las que acaba de ganar X en cada nivel
+	public long[] ganaRedondel;		// Posiciones en las que acaba de ganar O en cada nivel
+	public long[] empates;			// Posiciones de empate en cada nivel
+	public long milisegundos;		// Tiempo empleado en el recorrido
+	int[][] jugadas;				// Vector de jugadas por nivel (TableroMNK)
+
+	/**
+	 * Constructor. Prepara los contadores.
+	 * @param niveles nmero mximo de niveles a recorrer (sin contar la raz)
+	 */
+	public Perft (int niveles) {
+		nodos = new long[niveles+1];
+		ganaCruz = new long[niveles+1];
+		ganaRedondel = new long[niveles+1];
+		empates = new long[niveles+1];
+	}
+
+	/**
+	 * Recorre el rbol con <code>Tablero</code>, generando los sucesores igual que
+	 * <code>Jugador.max</code> y <code>Jugador.min</code>
+	 * @param t <code>Tablero</code> inicial
+	 * @param ficha <code>Contenido</code> con la ficha del jugador al que le toca mover
+	 * @param profundidad nmero de niveles a recorrer
+	 * @return este <code>Perft</code> con los recuentos
+	 */
+	public Perft contar (Tablero t, Contenido ficha, int profundidad) {
+		long inicio;
+
+		inicio = System.nanoTime();
+		contar(t, ficha, 0, profundidad);
+		milisegundos = (System.nanoTime() - inicio) / 1000000;
+		return this;
+	}
+
+	/**
+	 * Recorre el rbol con <code>TableroMNK</code>, haciendo y deshaciendo las jugadas
+	 * sobre el mismo tablero
+	 * @param t <code>TableroMNK</code> inicial (queda como estaba)
+	 * @param profundidad nmero de niveles a recorrer
+	 * @return este <code>Perft</code> con los recuentos
+	 */
+	public Perft contar (TableroMNK t, int profundidad) {
+		long inicio;
+
+		jugadas = new int[profundidad+1][t.numCeldas()];
+		inicio = System.nanoTime();
+		contar(t, 0, profundidad);
+		milisegundos = (System.nanoTime() - inicio) / 1000000;
+		return this;
+	}
+
+	void contar (Tablero t, Contenido ficha, int nivel, int profundidad) {
+		nodos[nivel]++;
+		if (t.ganador()) {
+			if (t.gana(Contenido.CRUZ))
+				ganaCruz[nivel]++;
+			else ganaRedondel[nivel]++;
+		} else if (t.completo())
+			empates[nivel]++;
+		else if (nivel < profundidad)
+			for (Tablero nt : t.jugadas(ficha, true))
+				contar(nt, TableroMNK.oponente(ficha), nivel+1, profundidad);
+	}
+
+	void contar (TableroMNK t, int nivel, int profundidad) {
+		int n;
+
+		nodos[nivel]++;
+		if (t.ganador() == Contenido.CRUZ)
+			ganaCruz[nivel]++;
+		else if (t.ganador() == Contenido.REDONDEL)
+			ganaRedondel[nivel]++;
+		else if (t.completo())
+			empates[nivel]++;
+		else if (nivel < profundidad) {
+			n = t.jugadas(jugadas[nivel]);
+			for (int i=0; i<n; i++) {
+				t.poner(jugadas[nivel][i]);
+				contar(t, nivel+1, profundidad);
+				t.quitar();
+			}
+		}
+	}
+
+	/**
+	 * @return nmero total de nodos generados (incluida la raz)
+	 */
+	public long totalNodos () {
+		long n;
+
+		n = 0;
+		for (long v : nodos)
+			n += v;
+		return n;
+	}
+
+	/**
+	 * @return nmero de posiciones terminales (partidas completas) encontradas
+	 */
+	public long partidas () {
+		long n;
+
+		n = 0;
+		for (int i=0; i<nodos.length; i++)
+			n += ganaCruz[i] + ganaRedondel[i] + empates[i];
+		return n;
+	}
+
+	/**
+	 * @return nodos generados por segundo
+	 */
+	public long nodosPorSegundo () {
+		return totalNodos() * 1000 / Math.max(milisegundos, 1);
+	}
+
+	/**
+	 * Comprueba que dos recorridos han dado los mismos recuentos en todos los niveles
+	 * @param otro <code>Perft</code> a comparar
+	 * @return <code>true</code> si los recuentos coinciden
+	 */
+	public boolean igual (Perft otro) {
+		return java.util.Arrays.equals(nodos, otro.nodos) && java.util.Arrays.equals(ganaCruz, otro.ganaCruz)
+				&& java.util.Arrays.equals(ganaRedondel, otro.ganaRedondel) && java.util.Arrays.equals(empates, otro.empates);
+	}
+
+	/**
+	 * Comprueba los recuentos de un recorrido completo desde el tablero vaco del 3x3
+	 * con los valores conocidos
+	 * @throws IllegalStateException si algn recuento no coincide
+	 */
+	public void comprobar3x3 () {
+		for (int i=0; i<nodos.length && i<NODOS_3X3.length; i++)
+			if (nodos[i] != NODOS_3X3[i] || ganaCruz[i] != GANA_CRUZ_3X3[i]
+					|| ganaRedondel[i] != GANA_REDONDEL_3X3[i] || empates[i] != EMPATES_3X3[i])
+				throw new IllegalStateException("Recuento incorrecto en el nivel " + i);
+		if (nodos.length > NODOS_3X3.length - 1 && partidas() != PARTIDAS_3X3)
+			throw new IllegalStateException("Se esperaban " + PARTIDAS_3X3 + " partidas y se han contado " + partidas());
+	}
+
+	/**
+	 * Imprime los recuentos por nivel
+	 */
+	public void print () {
+		System.out.println("Nivel        Nodos     Gana X     Gana O    Empates");
+		for (int i=0; i<nodos.length; i++)
+			System.out.println(String.format("%5d %12d %10d %10d %10d", i, nodos[i], ganaCruz[i], ganaRedondel[i], empates[i]));
+		System.out.println("Total " + totalNodos() + " nodos, " + partidas() + " partidas completas");
+	}
+
+	/**
+	 * Construye un <code>Tablero</code> a partir de su descripcin
+	 * @param posicion 9 caracteres por filas: <code>X</code>, <code>O</code> (o <code>0</code>) y <code>.</code> para las vacas
+	 * @return el <code>Tablero</code>
+	 */
+	public static Tablero leerPosicion (String posicion) {
+		Tablero t;
+
+		if (posicion.length() != Tablero.DIM*Tablero.DIM)
+			throw new IllegalArgumentException("La posicin debe tener " + Tablero.DIM*Tablero.DIM + " caracteres");
+		t = new Tablero();
+		for (int c=0; c<posicion.length(); c++) {
+			switch (Character.toUpperCase(posicion.charAt(c))) {
+				case 'X': t.tablero[c / Tablero.DIM][c % Tablero.DIM] = Contenido.CRUZ; break;
+				case 'O': case '0': t.tablero[c / Tablero.DIM][c % Tablero.DIM] = Contenido.REDONDEL; break;
+				case '.': break;
+				default: throw new IllegalArgumentException("Carcter no vlido en la posicin: " + posicion.charAt(c));
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * Obtiene a quin le toca mover (empieza X)
+	 * @param t <code>Tablero</code>
+	 * @return <code>Contenido</code> con la ficha del jugador al que le toca mover
+	 */
+	public static Contenido turno (Tablero t) {
+		int cruces, redondeles;
+
+		cruces = redondeles = 0;
+		for (int i=0; i<Tablero.DIM; i++)
+			for (int j=0; j<Tablero.DIM; j++)
+				if (t.tablero[i][j] == Contenido.CRUZ)
+					cruces++;
+				else if (t.tablero[i][j] == Contenido.REDONDEL)
+					redondeles++;
+		return cruces > redondeles ? Contenido.REDONDEL : Contenido.CRUZ;
+	}
+
+	/**
+	 * Recorre el rbol de una posicin con cada representacin del tablero, comprueba que
+	 * ambas coinciden (y, desde el tablero vaco, que dan los valores conocidos) e informa
+	 * de los nodos por segundo de cada una.
+	 * @param args posicin (por defecto el tablero vaco, ver <code>leerPosicion</code>),
+	 * profundidad (por defecto hasta el final) y nmero de repeticiones de la medida
+	 * (por defecto 5; se toma la ms rpida)
+	 */
+	public static void main (String[] args) {
+		Tablero t;
+		Contenido mueve;
+		int profundidad, repeticiones;
+		Perft tablero, mnk;
+		boolean inicial;
+
+		t = args.length > 0 ? leerPosicion(args[0]) : new Tablero();
+		profundidad = args.length > 1 ? Integer.parseInt(args[1]) : Tablero.DIM*Tablero.DIM;
+		repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		mueve = turno(t);
+		inicial = t.clave() == 0;
+
+		tablero = mnk = null;
+		for (int r=0; r<repeticiones; r++) {
+			Perft p = new Perft(profundidad).contar(t, mueve, profundidad);
+			if (tablero == null || p.milisegundos < tablero.milisegundos)
+				tablero = p;
+			p = new Perft(profundidad).contar(new TableroMNK(t, mueve), profundidad);
+			if (mnk == null || p.milisegundos < mnk.milisegundos)
+				mnk = p;
+		}
+
+		t.print();
+		System.out.println("Mueve " + (mueve == Contenido.CRUZ ? "X" : "O") + ", profundidad " + profundidad);
+		tablero.print();
+		if (!tablero.igual(mnk))
+			throw new IllegalStateException("Tablero y TableroMNK no generan el mismo rbol");
+		if (inicial) {
+			tablero.comprobar3x3();
+			System.out.println("Recuentos del 3x3 correctos");
+		}
+		System.out.println("Tablero:    " + tablero.milisegundos + " ms, " + tablero.nodosPorSegundo() + " nodos/s");
+		System.out.println("TableroMNK: " + mnk.milisegundos + " ms, " + mnk.nodosPorSegundo() + " nodos/s");
+	}
+}
@@ -0,0 +1,181 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+
+/**
+ * Clase que permite a un jugador mquina "pensar en el tiempo del rival": mientras el
+ * hombre decide su jugada, unos hilos en segundo plano buscan la respuesta a cada una
+ * de las jugadas que puede hacer (empezando por las que mejor le evalan, que son las
+ * ms probables). Las bsquedas se guardan en una tabla indexada por la clave del
+ * tablero resultante y la profundidad, de forma que cuando el hombre mueve la mquina
+ * slo tiene que recoger (o esperar, o hacer ella misma si an no haba empezado) la
+ * bsqueda de esa posicin.
+ * @since Oct 2026
+ * @version 1.0
+ * @see Jugador
+ * @see Partida
+ */
+public class Ponderacion {
+	Jugador maquina;				// Jugador que realiza las bsquedas
+	int profundidad;				// Lmite de profundidad de las bsquedas
+	ExecutorService ejecutor;		// Hilos de bsqueda en segundo plano
+	ConcurrentHashMap<Long, FutureTask<Busqueda>> respuestas;	// Bsqueda de cada posicin posible
+	public int aciertos;			// Respuestas obtenidas de una bsqueda anticipada
+	public int fallos;				// Respuestas que hubo que buscar al recibir la jugada
+	public long nodos;				// Nodos de la bsqueda que dio la ltima respuesta
+	public boolean acierto;			// La ltima respuesta sali de una bsqueda anticipada
+
+	/**
+	 * Jugada encontrada por una bsqueda anticipada y nodos que ha costado
+	 */
+	static class Busqueda {
+		Movimiento movimiento;
+		long nodos;
+	}
+
+	/**
+	 * Constructor. Crea los hilos de bsqueda.
+	 * @param j <code>Jugador</code> mquina
+	 * @param prof lmite de profundidad de las bsquedas
+	 * @param numHilos nmero de hilos de bsqueda
+	 */
+	public Ponderacion (Jugador j, int prof, int numHilos) {
+		maquina = j;
+		profundidad = prof;
+		respuestas = new ConcurrentHashMap<Long, FutureTask<Busqueda>>();
+		ejecutor = Executors.newFixedThreadPool(numHilos, new ThreadFactory() {
+			public Thread newThread (Runnable r) {
+				Thread t = new Thread(r, "ponderacion");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * @param t <code>Tablero</code> en el que le toca mover a la mquina
+	 * @return la clave con la que se guarda la bsqueda de <code>t</code>
+	 */
+	long clave (Tablero t) {
+		return ((long) profundidad << 32) | t.clave();
+	}
+
+	/**
+	 * Lanza en segundo plano la bsqueda de la respuesta a cada jugada posible del
+	 * oponente, ordenadas de ms a menos probable segn la evaluacin del oponente.
+	 * @param t <code>Tablero</code> en el que le toca mover al oponente
+	 * @param fichaOponente <code>Contenido</code> con la ficha del oponente
+	 */
+	public void ponderar (Tablero t, final Contenido fichaOponente) {
+		ArrayList<Tablero> sucesores;
+
+		sucesores = new ArrayList<Tablero>();
+		for (int i=0; i<Tablero.DIM; i++)
+			for (int j=0; j<Tablero.DIM; j++)
+				if (t.casillaVacia(i, j)) {
+					Tablero nt = t.poner(i, j, fichaOponente);
+					if (!nt.ganador() && !nt.completo())
+						sucesores.add(nt);
+				}
+		Collections.sort(sucesores, new Comparator<Tablero>() {
+			public int compare (Tablero a, Tablero b) {
+				return Integer.compare(b.evaluacion(fichaOponente, true), a.evaluacion(fichaOponente, true));
+			}
+		});
+		for (final Tablero nt : sucesores) {
+			FutureTask<Busqueda> tarea = new FutureTask<Busqueda>(new Callable<Busqueda>() {
+				public Busqueda call () {
+					Busqueda b = new Busqueda();
+					b.movimiento = maquina.buscaJugada(nt, profundidad);
+					b.nodos = Jugador.nodosUltimaBusqueda();	// del hilo que ha buscado
+					return b;
+				}
+			});
+			if (respuestas.putIfAbsent(clave(nt), tarea) == null)
+				ejecutor.execute(tarea);
+		}
+	}
+
+	/**
+	 * Obtiene la jugada de la mquina en el tablero resultante de la jugada del oponente.
+	 * Si la bsqueda se haba lanzado se aprovecha (si an no haba empezado la ejecuta
+	 * este mismo hilo); si no, se busca directamente. Despus se descartan las bsquedas
+	 * de las posiciones que ya no pueden darse. Los nodos de la bsqueda que da la
+	 * respuesta y si era anticipada quedan en <code>nodos</code> y <code>acierto</code>.
+	 * @param t <code>Tablero</code> en el que le toca mover a la mquina
+	 * @return el mejor <code>Movimiento</code> encontrado
+	 */
+	public Movimiento respuesta (Tablero t) {
+		FutureTask<Busqueda> tarea;
+		Busqueda busqueda;
+		Movimiento movimiento;
+
+		tarea = respuestas.remove(clave(t));
+		descartar();
+		acierto = tarea != null;
+		if (tarea == null) {
+			fallos++;
+			movimiento = maquina.buscaJugada(t, profundidad);
+			nodos = Jugador.nodosUltimaBusqueda();
+			return movimiento;
+		}
+		aciertos++;
+		tarea.run();	// no hace nada si ya ha empezado o terminado en otro hilo
+		try {
+			busqueda = tarea.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Bsqueda interrumpida", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("ERROR en la bsqueda anticipada", e.getCause());
+		}
+		nodos = busqueda.nodos;
+		return busqueda.movimiento;
+	}
+
+	/**
+	 * Cancela las bsquedas pendientes: las que esperan en la cola no llegan a empezar y
+	 * las que ya se estn ejecutando se interrumpen (<code>Jugador.max</code> y
+	 * <code>Jugador.min</code> abandonan la bsqueda al ver el hilo interrumpido)
+	 */
+	public void descartar () {
+		for (FutureTask<Busqueda> tarea : respuestas.values())
+			tarea.cancel(true);
+		respuestas.clear();
+	}
+
+	/**
+	 * @return fraccin de respuestas obtenidas de una bsqueda anticipada (0 si no ha
+	 * habido ninguna)
+	 */
+	public double tasaAciertos () {
+		return aciertos + fallos == 0 ? 0 : (double) aciertos / (aciertos + fallos);
+	}
+
+	/**
+	 * @return los aciertos y fallos de la ponderacin en una lnea de texto
+	 */
+	public String toString () {
+		return "Ponderacin: " + aciertos + " aciertos, " + fallos + " fallos ("
+				+ Math.round(100 * tasaAciertos()) + "% de aciertos)";
+	}
+
+	/**
+	 * Libera los hilos de bsqueda
+	 */
+	public void cerrar () {
+		descartar();
+		ejecutor.shutdown();
+	}
+}
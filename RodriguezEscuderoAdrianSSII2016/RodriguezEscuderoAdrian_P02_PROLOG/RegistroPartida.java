@@ -0,0 +1,152 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Clase que guarda el desarrollo de una partida: unos metadatos (jugadores, ajustes del
+ * motor, resultado...) y la lista de jugadas con el tiempo y los nodos de bsqueda que
+ * ha costado cada una. Cada partida se escribe en una nica lnea de texto, lo que
+ * permite aadir partidas al final de un fichero de registro y leerlo despus partida a
+ * partida sin cargarlo entero:
+ * <pre>
+ * fecha=1791100000000;X=MAQUINA;O=HOMBRE;empieza=X;X.algoritmo=minimax;X.profundidad=5;X.ponderar=si;X.lotes=si;resultado=EMPATE;jugadas=4/12/5123 0/3051/0 2/1/498/p ...
+ * </pre>
+ * Cada jugada es <code>celda/milisegundos/nodos</code>, con la celda numerada por filas
+ * (<code>fila*3 + columna</code>) y los nodos de la bsqueda que dio la jugada; termina
+ * en <code>/p</code> si la jugada sali de una bsqueda anticipada (ponderacin), y
+ * entonces los milisegundos son slo la espera. El metadato <code>empieza</code> indica
+ * la ficha de la primera jugada (X si no est) y los ajustes de cada mquina van en
+ * metadatos con su ficha delante (<code>X.profundidad</code>...).
+ * @since Oct 2026
+ * @version 1.0
+ * @see Partida
+ * @see AnalisisRegistros
+ */
+public class RegistroPartida {
+	public LinkedHashMap<String, String> metadatos;	// Metadatos en el orden en que se aadieron
+	public int[] celdas;			// Celda de cada jugada
+	public long[] milisegundos;		// Tiempo empleado en cada jugada
+	public long[] nodos;			// Nodos de bsqueda de cada jugada (0 para el hombre)
+	public boolean[] anticipadas;	// Jugadas que salieron de una bsqueda anticipada
+	public int numJugadas;			// Nmero de jugadas
+
+	/**
+	 * Constructor. Crea un registro sin metadatos ni jugadas.
+	 */
+	public RegistroPartida () {
+		metadatos = new LinkedHashMap<String, String>();
+		celdas = new int[Tablero.DIM*Tablero.DIM];
+		milisegundos = new long[celdas.length];
+		nodos = new long[celdas.length];
+		anticipadas = new boolean[celdas.length];
+	}
+
+	/**
+	 * Aade un metadato
+	 * @param clave nombre del metadato (sin <code>=</code> ni <code>;</code>)
+	 * @param valor valor del metadato (sin <code>;</code>)
+	 */
+	public void anadir (String clave, String valor) {
+		metadatos.put(clave, valor);
+	}
+
+	/**
+	 * Aade una jugada
+	 * @param celda celda de la jugada
+	 * @param ms milisegundos empleados
+	 * @param n nodos de bsqueda
+	 * @param anticipada <code>true</code> si sali de una bsqueda anticipada
+	 */
+	public void anadir (int celda, long ms, long n, boolean anticipada) {
+		if (numJugadas == celdas.length) {
+			celdas = java.util.Arrays.copyOf(celdas, 2*numJugadas);
+			milisegundos = java.util.Arrays.copyOf(milisegundos, 2*numJugadas);
+			nodos = java.util.Arrays.copyOf(nodos, 2*numJugadas);
+			anticipadas = java.util.Arrays.copyOf(anticipadas, 2*numJugadas);
+		}
+		celdas[numJugadas] = celda;
+		milisegundos[numJugadas] = ms;
+		nodos[numJugadas] = n;
+		anticipadas[numJugadas] = anticipada;
+		numJugadas++;
+	}
+
+	/**
+	 * @return la ficha del jugador que hace la primera jugada
+	 */
+	public Tablero.Contenido empieza () {
+		return "O".equals(metadatos.get("empieza")) ? Tablero.Contenido.REDONDEL : Tablero.Contenido.CRUZ;
+	}
+
+	/**
+	 * @return la partida en el formato de una lnea del fichero de registro
+	 */
+	public String toString () {
+		StringBuilder sb;
+
+		sb = new StringBuilder();
+		for (Map.Entry<String, String> m : metadatos.entrySet())
+			sb.append(m.getKey()).append('=').append(m.getValue()).append(';');
+		sb.append("jugadas=");
+		for (int i=0; i<numJugadas; i++) {
+			if (i > 0)
+				sb.append(' ');
+			sb.append(celdas[i]).append('/').append(milisegundos[i]).append('/').append(nodos[i]);
+			if (anticipadas[i])
+				sb.append("/p");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Aade la partida al final de un fichero de registro
+	 * @param fichero nombre del fichero
+	 * @throws IOException si no se puede escribir
+	 */
+	public void guardar (String fichero) throws IOException {
+		Writer w;
+
+		w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fichero, true), "ISO-8859-1"));
+		try {
+			w.write(toString());
+			w.write(System.getProperty("line.separator"));
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Reconstruye una partida a partir de una lnea del fichero de registro
+	 * @param linea lnea con la partida
+	 * @return el <code>RegistroPartida</code>
+	 * @throws IllegalArgumentException si la lnea no tiene el formato esperado
+	 */
+	public static RegistroPartida leer (String linea) {
+		RegistroPartida r;
+
+		r = new RegistroPartida();
+		for (String campo : linea.split(";")) {
+			int igual = campo.indexOf('=');
+			if (igual < 0)
+				throw new IllegalArgumentException("Campo sin valor: " + campo);
+			String clave = campo.substring(0, igual), valor = campo.substring(igual+1);
+			if (!clave.equals("jugadas"))
+				r.anadir(clave, valor);
+			else if (valor.length() > 0)
+				for (String jugada : valor.split(" ")) {
+					String[] partes = jugada.split("/");
+					if (partes.length != 3 && (partes.length != 4 || !partes[3].equals("p")))
+						throw new IllegalArgumentException("Jugada mal formada: " + jugada);
+					r.anadir(Integer.parseInt(partes[0]), Long.parseLong(partes[1]), Long.parseLong(partes[2]),
+							partes.length == 4);
+				}
+		}
+		return r;
+	}
+}
@@ -0,0 +1,461 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Resultado;
+
+/**
+ * Clase que implementa un resolutor de posiciones mediante bsqueda por nmeros de
+ * prueba en profundidad (df-pn). A diferencia de la bsqueda minimax de <code>Jugador</code>,
+ * no evala posiciones intermedias: demuestra (o refuta) que un jugador puede forzar la
+ * victoria desde una posicin, expandiendo siempre el nodo ms prometedor segn los
+ * nmeros de prueba (<code>pn</code>) y de refutacin (<code>dn</code>).
+ * <p>
+ * Para distinguir victoria, derrota y empate se hacen dos demostraciones: primero si el
+ * jugador al que le toca mover puede ganar y, si no, si puede ganar su oponente. Los
+ * nmeros de prueba se guardan en una tabla de transposicin de tamao fijo (dos
+ * entradas por cubeta, se reemplaza la que representa menos trabajo), de forma que la
+ * memoria utilizada est acotada independientemente del tamao del rbol. Tambin est
+ * acotado el conjunto de posiciones con el que se cuenta el rbol solucin: si se llena,
+ * el recuento se detiene y el tamao se da como cota inferior.
+ * @since Oct 2026
+ * @version 1.0
+ * @see TableroMNK
+ * @see Jugador
+ */
+public class ResolutorPN {
+	public static final int INFINITO = Integer.MAX_VALUE / 2;	// Nmero de prueba/refutacin infinito
+
+	long[] claves;				// Clave de la posicin de cada entrada (0 si est libre)
+	int[] pn;					// Nmero de prueba de cada entrada
+	int[] dn;					// Nmero de refutacin de cada entrada
+	long[] trabajo;				// Nodos expandidos para obtener cada entrada
+	int mascara;				// Nmero de cubetas - 1
+	long llaveAtacante;			// Se combina con la clave para separar las dos demostraciones
+	Contenido atacante;			// Jugador cuya victoria se intenta demostrar
+	int[][] jugadas;			// Vector de jugadas por nivel de la bsqueda
+	int[][] numHijos;			// pn y dn devueltos por mid para cada hijo, por nivel
+	boolean[][] expandidos;		// Hijos ya expandidos desde el nodo de cada nivel
+	long[] visitadas;			// Posiciones ya contadas del rbol solucin (0 si est libre)
+	int numVisitadas;			// Posiciones guardadas en visitadas
+
+	public long nodos;					// Nodos expandidos en la ltima resolucin
+	public int pnRaiz, dnRaiz;			// Nmeros de prueba y refutacin de la raz
+	public int tamanoSolucion;			// Posiciones distintas del rbol solucin
+	public boolean tamanoAproximado;	// El rbol solucin no caba y tamanoSolucion es una cota inferior
+	public int mejorCelda;				// Jugada ganadora (o que evita la derrota) de la raz
+
+	/**
+	 * Constructor.
+	 * @param bitsTabla logaritmo en base 2 del nmero de cubetas de la tabla de transposicin
+	 */
+	public ResolutorPN (int bitsTabla) {
+		int entradas;
+
+		entradas = 2 << bitsTabla;
+		claves = new long[entradas];
+		pn = new int[entradas];
+		dn = new int[entradas];
+		trabajo = new long[entradas];
+		mascara = (1 << bitsTabla) - 1;
+		visitadas = new long[entradas];
+	}
+
+	/**
+	 * Resuelve una posicin del Tres en Raya
+	 * @param t <code>Tablero</code> a resolver
+	 * @param mueve ficha del jugador al que le toca mover
+	 * @return el <code>Resultado</code> de la partida con juego perfecto
+	 */
+	public Resultado resolver (Tablero t, Contenido mueve) {
+		return resolver(new TableroMNK(t, mueve));
+	}
+
+	/**
+	 * Resuelve una posicin de un tablero generalizado
+	 * @param t <code>TableroMNK</code> a resolver (no se modifica)
+	 * @return el <code>Resultado</code> de la partida con juego perfecto
+	 */
+	public Resultado resolver (TableroMNK t) {
+		TableroMNK tab;
+		Contenido mueve;
+		long nodosTotales;
+
+		tab = new TableroMNK(t);
+		if (tab.terminal())
+			return tab.estado();
+		mueve = tab.turno();
+		jugadas = new int[tab.numCeldas()+1][tab.numCeldas()];
+		numHijos = new int[tab.numCeldas()+1][2*tab.numCeldas()];
+		expandidos = new boolean[tab.numCeldas()+1][tab.numCeldas()];
+		mejorCelda = -1;
+
+		if (demostrar(tab, mueve)) {
+			nodosTotales = nodos;
+			contarSolucion(tab);
+			mejorCelda = celdaDemostrada(tab);
+			nodos = nodosTotales;
+			return mueve == Contenido.CRUZ ? Resultado.GANA_CRUZ : Resultado.GANA_REDONDEL;
+		}
+		nodosTotales = nodos;
+		if (demostrar(tab, TableroMNK.oponente(mueve))) {
+			nodosTotales += nodos;
+			contarSolucion(tab);
+			nodos = nodosTotales;
+			return mueve == Contenido.CRUZ ? Resultado.GANA_REDONDEL : Resultado.GANA_CRUZ;
+		}
+		nodosTotales += nodos;
+		// Empate: ninguno de los dos puede forzar la victoria. El rbol solucin es el
+		// de la refutacin de la victoria del jugador que mueve.
+		demostrar(tab, mueve);
+		contarSolucion(tab);
+		mejorCelda = celdaRefutada(tab);
+		nodos = nodosTotales;
+		return Resultado.EMPATE;
+	}
+
+	/**
+	 * Demuestra o refuta que un jugador puede forzar la victoria
+	 * @param t <code>TableroMNK</code> con la posicin
+	 * @param ficha jugador cuya victoria se intenta demostrar
+	 * @return <code>true</code> si se demuestra la victoria
+	 */
+	boolean demostrar (TableroMNK t, Contenido ficha) {
+		int[] r;
+
+		atacante = ficha;
+		llaveAtacante = ficha == Contenido.CRUZ ? 0 : 0x9E3779B97F4A7C15L;
+		nodos = 0;
+		r = mid(t, INFINITO, INFINITO, 0);
+		pnRaiz = r[0];
+		dnRaiz = r[1];
+		return pnRaiz == 0;
+	}
+
+	/**
+	 * Expansin de un nodo de df-pn (Multiple Iterative Deepening de Nagai): se profundiza
+	 * por el hijo ms prometedor mientras los nmeros del nodo no alcancen los umbrales.
+	 * Los nmeros de un hijo ya expandido son los que devolvi <code>mid</code>, aunque su
+	 * entrada de la tabla se haya reemplazado; los de los dems se leen de la tabla.
+	 * @param t <code>TableroMNK</code> con la posicin del nodo
+	 * @param umbralPn umbral del nmero de prueba
+	 * @param umbralDn umbral del nmero de refutacin
+	 * @param nivel en el rbol de bsqueda (la raz se sita en el nivel 0)
+	 * @return los nmeros de prueba y refutacin del nodo
+	 */
+	int[] mid (TableroMNK t, int umbralPn, int umbralDn, int nivel) {
+		int[] js, numeros, hijos;
+		int n, p, d;
+		boolean nodoO;
+		boolean[] expandido;
+		long inicio;
+
+		nodos++;
+		numeros = terminal(t);
+		if (numeros != null) {
+			guardar(t.hash(), numeros[0], numeros[1], 1);
+			return numeros;
+		}
+		inicio = nodos;
+		nodoO = t.turno() == atacante;	// en los nodos O elige el atacante
+		js = jugadas[nivel];
+		hijos = numHijos[nivel];
+		expandido = expandidos[nivel];
+		n = t.jugadas(js);
+		for (int i=0; i<n; i++)
+			expandido[i] = false;
+		while (true) {
+			int mejor = -1, mejorValor = INFINITO + 1, segundo = INFINITO;
+			int mejorPn = 0, mejorDn = 0;
+			p = nodoO ? INFINITO : 0;
+			d = nodoO ? 0 : INFINITO;
+			for (int i=0; i<n; i++) {
+				int cpn, cdn;
+				if (expandido[i]) {
+					cpn = hijos[2*i];
+					cdn = hijos[2*i+1];
+				} else {
+					t.poner(js[i]);
+					numeros = consultar(t);
+					t.quitar();
+					cpn = numeros[0];
+					cdn = numeros[1];
+				}
+				int valor = nodoO ? cpn : cdn;
+				if (nodoO) {
+					p = Math.min(p, cpn);
+					d = suma(d, cdn);
+				} else {
+					p = suma(p, cpn);
+					d = Math.min(d, cdn);
+				}
+				if (valor < mejorValor) {
+					segundo = mejorValor;
+					mejorValor = valor;
+					mejor = i;
+					mejorPn = cpn;
+					mejorDn = cdn;
+				} else if (valor < segundo)
+					segundo = valor;
+			}
+			if (p >= umbralPn || d >= umbralDn || p == 0 || d == 0)
+				break;
+			int hijoPn, hijoDn;
+			if (nodoO) {
+				hijoPn = Math.min(umbralPn, segundo + 1);
+				hijoDn = suma(umbralDn - d, mejorDn);
+			} else {
+				hijoPn = suma(umbralPn - p, mejorPn);
+				hijoDn = Math.min(umbralDn, segundo + 1);
+			}
+			t.poner(js[mejor]);
+			numeros = mid(t, hijoPn, hijoDn, nivel+1);
+			t.quitar();
+			hijos[2*mejor] = numeros[0];
+			hijos[2*mejor+1] = numeros[1];
+			expandido[mejor] = true;
+		}
+		guardar(t.hash(), p, d, nodos - inicio + 1);
+		return new int[] {p, d};
+	}
+
+	/**
+	 * Evala una posicin terminal
+	 * @param t <code>TableroMNK</code> con la posicin
+	 * @return los nmeros de prueba y refutacin o <code>null</code> si no es terminal
+	 */
+	int[] terminal (TableroMNK t) {
+		if (t.ganador() == atacante)
+			return new int[] {0, INFINITO};
+		if (t.terminal())
+			return new int[] {INFINITO, 0};
+		return null;
+	}
+
+	/**
+	 * Obtiene los nmeros de un nodo de la tabla de transposicin
+	 * @param t <code>TableroMNK</code> con la posicin
+	 * @return los nmeros guardados o (1, 1) si el nodo no se ha expandido
+	 */
+	int[] consultar (TableroMNK t) {
+		int[] numeros;
+		int e;
+
+		numeros = terminal(t);
+		if (numeros != null)
+			return numeros;
+		e = buscar(t.hash());
+		if (e >= 0)
+			return new int[] {pn[e], dn[e]};
+		return new int[] {1, 1};
+	}
+
+	/**
+	 * @param h clave de la posicin
+	 * @return la entrada de la tabla con esa clave o -1 si no est
+	 */
+	int buscar (long h) {
+		long clave;
+		int e;
+
+		clave = clave(h);
+		e = 2 * ((int) (clave ^ (clave >>> 32)) & mascara);
+		if (claves[e] == clave)
+			return e;
+		if (claves[e+1] == clave)
+			return e + 1;
+		return -1;
+	}
+
+	/**
+	 * Guarda los nmeros de un nodo. Si la cubeta est llena se reemplaza la entrada
+	 * que ha costado menos obtener.
+	 * @param h clave de la posicin
+	 * @param p nmero de prueba
+	 * @param d nmero de refutacin
+	 * @param coste nodos expandidos para obtener los nmeros
+	 */
+	void guardar (long h, int p, int d, long coste) {
+		long clave;
+		int e;
+
+		clave = clave(h);
+		e = 2 * ((int) (clave ^ (clave >>> 32)) & mascara);
+		if (claves[e+1] == clave || (claves[e] != clave && trabajo[e+1] < trabajo[e]))
+			e++;
+		claves[e] = clave;
+		pn[e] = p;
+		dn[e] = d;
+		trabajo[e] = coste;
+	}
+
+	/**
+	 * @param h clave de Zobrist de la posicin
+	 * @return la clave en la tabla (distinta para cada atacante y nunca 0)
+	 */
+	long clave (long h) {
+		long c = h ^ llaveAtacante;
+		return c == 0 ? 1 : c;
+	}
+
+	/**
+	 * Cuenta el rbol solucin de la ltima demostracin en <code>tamanoSolucion</code>
+	 * @param t <code>TableroMNK</code> con la posicin raz
+	 */
+	void contarSolucion (TableroMNK t) {
+		java.util.Arrays.fill(visitadas, 0);
+		numVisitadas = 0;
+		tamanoAproximado = false;
+		tamanoSolucion = tamano(t);
+	}
+
+	/**
+	 * Marca una posicin como contada. Se admite una ocupacin de 3/4 de la tabla; a
+	 * partir de ah no se marcan ms posiciones y el recuento pasa a ser aproximado.
+	 * @param h clave de la posicin
+	 * @return <code>true</code> si la posicin no se haba contado y hay sitio para ella
+	 */
+	boolean marcar (long h) {
+		long clave;
+		int pos, m;
+
+		clave = h == 0 ? 1 : h;
+		m = visitadas.length - 1;
+		pos = (int) (clave ^ (clave >>> 32)) & m;
+		while (visitadas[pos] != 0) {
+			if (visitadas[pos] == clave)
+				return false;
+			pos = (pos + 1) & m;
+		}
+		if (4L*(numVisitadas+1) > 3L*visitadas.length) {
+			tamanoAproximado = true;
+			return false;
+		}
+		visitadas[pos] = clave;
+		numVisitadas++;
+		return true;
+	}
+
+	/**
+	 * Cuenta las posiciones distintas del rbol solucin de la ltima demostracin: en los
+	 * nodos demostrados se sigue una jugada que mantiene la demostracin y en los refutados
+	 * todas (y al revs si lo que se obtuvo fue una refutacin). Si una entrada necesaria se
+	 * ha reemplazado en la tabla, el subrbol se vuelve a resolver.
+	 * @param t <code>TableroMNK</code> con la posicin
+	 * @return el nmero de posiciones del rbol solucin (sin contar las que no caben en
+	 * <code>visitadas</code>)
+	 */
+	int tamano (TableroMNK t) {
+		int[] js, numeros;
+		int n, total;
+		boolean demostrado, nodoO, todas;
+
+		if (!marcar(t.hash()))
+			return 0;
+		if (terminal(t) != null)
+			return 1;
+		numeros = consultar(t);
+		if (numeros[0] != 0 && numeros[1] != 0)
+			numeros = mid(t, INFINITO, INFINITO, t.numJugadas);
+		demostrado = numeros[0] == 0;
+		nodoO = t.turno() == atacante;
+		// Basta una jugada en los nodos O demostrados y en los Y refutados
+		todas = demostrado != nodoO;
+		js = new int[t.numCeldas()];
+		n = t.jugadas(js);
+		total = 1;
+		for (int i=0; i<n; i++) {
+			t.poner(js[i]);
+			int[] hijo = consultar(t);
+			if (hijo[0] != 0 && hijo[1] != 0)
+				hijo = mid(t, INFINITO, INFINITO, t.numJugadas);
+			boolean util = demostrado ? hijo[0] == 0 : hijo[1] == 0;
+			if (todas || util)
+				total += tamano(t);
+			t.quitar();
+			if (!todas && util)
+				break;
+		}
+		return total;
+	}
+
+	/**
+	 * @param t <code>TableroMNK</code> con una posicin demostrada para el jugador que mueve
+	 * @return la celda que mantiene la demostracin
+	 */
+	int celdaDemostrada (TableroMNK t) {
+		int[] js;
+		int n;
+
+		js = new int[t.numCeldas()];
+		n = t.jugadas(js);
+		for (int i=0; i<n; i++) {
+			t.poner(js[i]);
+			int[] hijo = consultar(t);
+			if (hijo[0] != 0 && hijo[1] != 0)
+				hijo = mid(t, INFINITO, INFINITO, t.numJugadas);
+			t.quitar();
+			if (hijo[0] == 0)
+				return js[i];
+		}
+		return -1;
+	}
+
+	/**
+	 * @param t <code>TableroMNK</code> en la que se ha refutado la victoria del jugador que
+	 * mueve y tambin la de su oponente
+	 * @return una celda tras la que el oponente no puede forzar la victoria
+	 */
+	int celdaRefutada (TableroMNK t) {
+		int[] js;
+		int n;
+
+		js = new int[t.numCeldas()];
+		n = t.jugadas(js);
+		atacante = TableroMNK.oponente(t.turno());
+		llaveAtacante = atacante == Contenido.CRUZ ? 0 : 0x9E3779B97F4A7C15L;
+		for (int i=0; i<n; i++) {
+			t.poner(js[i]);
+			int[] hijo = consultar(t);
+			if (hijo[0] != 0 && hijo[1] != 0)
+				hijo = mid(t, INFINITO, INFINITO, t.numJugadas);
+			t.quitar();
+			if (hijo[1] == 0)
+				return js[i];
+		}
+		return -1;
+	}
+
+	/**
+	 * @return suma de dos nmeros de prueba saturada en <code>INFINITO</code>
+	 */
+	static int suma (int a, int b) {
+		long s = (long) a + b;
+		return s >= INFINITO ? INFINITO : (int) s;
+	}
+
+	/**
+	 * Resuelve el Tres en Raya y algunas variantes m,n,k desde la posicin inicial
+	 * @param args filas, columnas y k (por defecto 3 3 3)
+	 */
+	public static void main (String[] args) {
+		TableroMNK t;
+		ResolutorPN resolutor;
+		Resultado r;
+		long inicio;
+
+		t = args.length >= 3 ?
+				new TableroMNK(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2])) :
+				new TableroMNK(3, 3, 3);
+		resolutor = new ResolutorPN(20);
+		inicio = System.currentTimeMillis();
+		r = resolutor.resolver(t);
+		System.out.println("Tablero " + t.filas + "x" + t.columnas + " k=" + t.k + ": " + r);
+		System.out.println("pn = " + resolutor.pnRaiz + ", dn = " + resolutor.dnRaiz);
+		System.out.println("Nodos expandidos: " + resolutor.nodos);
+		System.out.println("Tamao de la solucin: " + (resolutor.tamanoAproximado ? "al menos " : "")
+				+ resolutor.tamanoSolucion);
+		if (resolutor.mejorCelda >= 0)
+			t.movimiento(resolutor.mejorCelda, 0).print();
+		System.out.println("Tiempo: " + (System.currentTimeMillis() - inicio) + " ms");
+	}
+}
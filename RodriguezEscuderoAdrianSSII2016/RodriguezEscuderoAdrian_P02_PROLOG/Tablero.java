@@ -236,6 +236,22 @@ public class Tablero {
 		return r;
 	}
 	
+	/**
+	 * Codifica el contenido del tablero en un entero (dos bits por celda con el
+	 * ordinal de su <code>Contenido</code>). Dos tableros con las mismas fichas
+	 * tienen la misma clave.
+	 * @return la clave del tablero
+	 */
+	public int clave () {
+		int c;
+
+		c = 0;
+		for (int i=0; i<DIM; i++)
+			for (int j=0; j<DIM; j++)
+				c = (c << 2) | tablero[i][j].ordinal();
+		return c;
+	}
+	
 	/**
 	 * Calcula el nmero de filas que pueden completarse
 	 * con las fichas de un determinado tipo. 
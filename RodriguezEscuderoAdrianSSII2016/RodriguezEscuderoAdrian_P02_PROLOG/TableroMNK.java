@@ -0,0 +1,308 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import java.util.Random;
+
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Contenido;
+import org.ssii.busqueda.juegos.tresenraya.Tablero.Resultado;
+
+/**
+ * Clase que implementa un tablero generalizado del Tres en Raya: <code>filas</code> x
+ * <code>columnas</code> celdas en el que gana quien consigue <code>k</code> fichas en lnea
+ * (el Tres en Raya es el caso 3x3 con k=3). A diferencia de <code>Tablero</code>, las
+ * jugadas se hacen y deshacen sobre el mismo objeto, las celdas se guardan en un
+ * <code>byte[]</code> (con el ordinal de <code>Contenido</code>) y se mantiene una clave
+ * hash de Zobrist que identifica la posicin y el turno.
+ * @since Oct 2026
+ * @version 1.0
+ * @see Tablero
+ */
+public class TableroMNK {
+	static final byte VACIA = 0;						// Contenido.VACIA.ordinal()
+	static final Contenido[] CONTENIDOS = Contenido.values();		// Contenido de cada valor de celda
+	static final int[][] DIRECCIONES = {{0,1}, {1,0}, {1,1}, {1,-1}};	// Direcciones de las lneas
+
+	public final int filas;			// Nmero de filas
+	public final int columnas;		// Nmero de columnas
+	public final int k;				// Fichas en lnea necesarias para ganar
+	byte[] celdas;					// Contenido de cada celda (fila*columnas + columna)
+	int ocupadas;					// Nmero de celdas ocupadas
+	Contenido turno;				// Ficha del jugador al que le toca mover
+	Contenido ganador;				// Ficha del ganador (VACIA si no hay)
+	long hash;						// Clave de Zobrist de la posicin y el turno
+	long[] zobrist;					// Claves aleatorias: 2 por celda y una para el turno
+	int[] historial;				// Celdas de las jugadas realizadas
+	int numJugadas;					// Nmero de jugadas en el historial
+
+	/**
+	 * Constructor. Crea un tablero vaco en el que empieza a jugar CRUZ.
+	 * @param f nmero de filas
+	 * @param c nmero de columnas
+	 * @param enLinea fichas en lnea necesarias para ganar
+	 */
+	public TableroMNK (int f, int c, int enLinea) {
+		Random aleatorio;
+
+		filas = f;
+		columnas = c;
+		k = enLinea;
+		celdas = new byte[f*c];
+		historial = new int[f*c];
+		turno = Contenido.CRUZ;
+		ganador = Contenido.VACIA;
+		// Las claves slo dependen de las dimensiones para que dos tableros iguales
+		// creados por separado tengan la misma clave
+		aleatorio = new Random(0x5DEECE66DL + 31L*f + c);
+		zobrist = new long[2*f*c + 1];
+		for (int i=0; i<zobrist.length; i++)
+			zobrist[i] = aleatorio.nextLong();
+		hash = 0;
+	}
+
+	/**
+	 * Constructor. Crea un tablero 3x3 (k=3) con el contenido de un <code>Tablero</code>.
+	 * @param t <code>Tablero</code> del Tres en Raya
+	 * @param mueve ficha del jugador al que le toca mover
+	 */
+	public TableroMNK (Tablero t, Contenido mueve) {
+		this(Tablero.DIM, Tablero.DIM, 3);
+		for (int i=0; i<Tablero.DIM; i++)
+			for (int j=0; j<Tablero.DIM; j++)
+				if (t.tablero[i][j] != Contenido.VACIA)
+					fijar(i*columnas + j, t.tablero[i][j]);
+		if (mueve != turno) {
+			turno = mueve;
+			hash ^= zobrist[zobrist.length-1];
+		}
+		if (t.gana(Contenido.CRUZ))
+			ganador = Contenido.CRUZ;
+		else if (t.gana(Contenido.REDONDEL))
+			ganador = Contenido.REDONDEL;
+	}
+
+	/**
+	 * Constructor por copia.
+	 * @param t <code>TableroMNK</code> a copiar
+	 */
+	public TableroMNK (TableroMNK t) {
+		filas = t.filas;
+		columnas = t.columnas;
+		k = t.k;
+		celdas = t.celdas.clone();
+		historial = t.historial.clone();
+		numJugadas = t.numJugadas;
+		ocupadas = t.ocupadas;
+		turno = t.turno;
+		ganador = t.ganador;
+		hash = t.hash;
+		zobrist = t.zobrist;	// las claves no se modifican
+	}
+
+	/**
+	 * Sita una ficha sin cambiar el turno ni comprobar si gana (preparacin de posiciones)
+	 * @param celda ndice de la celda
+	 * @param ficha <code>Contenido</code> a situar
+	 */
+	void fijar (int celda, Contenido ficha) {
+		celdas[celda] = (byte) ficha.ordinal();
+		hash ^= zobrist[2*celda + ficha.ordinal() - 1];
+		ocupadas++;
+	}
+
+	/**
+	 * @return nmero de celdas del tablero
+	 */
+	public int numCeldas () {
+		return celdas.length;
+	}
+
+	/**
+	 * @param celda ndice de la celda
+	 * @return <code>true</code> si la celda est vaca
+	 */
+	public boolean casillaVacia (int celda) {
+		return celdas[celda] == VACIA;
+	}
+
+	/**
+	 * @param fil fila de la celda
+	 * @param col columna de la celda
+	 * @return el <code>Contenido</code> de la celda
+	 */
+	public Contenido contenido (int fil, int col) {
+		return CONTENIDOS[celdas[fil*columnas + col]];
+	}
+
+	/**
+	 * @return la ficha del jugador al que le toca mover
+	 */
+	public Contenido turno () {
+		return turno;
+	}
+
+	/**
+	 * @return la ficha del ganador o <code>VACIA</code> si no hay ganador
+	 */
+	public Contenido ganador () {
+		return ganador;
+	}
+
+	/**
+	 * @return <code>true</code> si todas las celdas estn ocupadas
+	 */
+	public boolean completo () {
+		return ocupadas == celdas.length;
+	}
+
+	/**
+	 * @return <code>true</code> si la partida ha terminado
+	 */
+	public boolean terminal () {
+		return ganador != Contenido.VACIA || ocupadas == celdas.length;
+	}
+
+	/**
+	 * @return la clave de Zobrist de la posicin (incluye el turno)
+	 */
+	public long hash () {
+		return hash;
+	}
+
+	/**
+	 * @return la celda de la ltima jugada o -1 si no se ha jugado ninguna
+	 */
+	public int ultimaJugada () {
+		return numJugadas > 0 ? historial[numJugadas-1] : -1;
+	}
+
+	/**
+	 * Devuelve el estado del juego en funcin del contenido del tablero
+	 * @return el <code>Resultado</code> del juego
+	 */
+	public Resultado estado () {
+		if (ganador == Contenido.CRUZ)
+			return Resultado.GANA_CRUZ;
+		if (ganador == Contenido.REDONDEL)
+			return Resultado.GANA_REDONDEL;
+		if (completo())
+			return Resultado.EMPATE;
+		return Resultado.EN_JUEGO;
+	}
+
+	/**
+	 * Pone la ficha del jugador al que le toca mover en una celda vaca y pasa el turno
+	 * @param celda ndice de la celda
+	 */
+	public void poner (int celda) {
+		fijar(celda, turno);
+		historial[numJugadas++] = celda;
+		if (enLinea(celda) >= k)
+			ganador = turno;
+		turno = oponente(turno);
+		hash ^= zobrist[zobrist.length-1];
+	}
+
+	/**
+	 * Deshace la ltima jugada
+	 */
+	public void quitar () {
+		int celda;
+
+		celda = historial[--numJugadas];
+		turno = oponente(turno);
+		hash ^= zobrist[zobrist.length-1];
+		hash ^= zobrist[2*celda + celdas[celda] - 1];
+		celdas[celda] = VACIA;
+		ocupadas--;
+		ganador = Contenido.VACIA;	// slo se juega en posiciones no terminales
+	}
+
+	/**
+	 * Obtiene las celdas vacas en las que puede mover el jugador al que le toca
+	 * @param jugadas vector en el que se escriben las celdas (al menos <code>numCeldas()</code>)
+	 * @return el nmero de jugadas
+	 */
+	public int jugadas (int[] jugadas) {
+		int n;
+
+		n = 0;
+		if (ganador != Contenido.VACIA)
+			return 0;
+		for (int c=0; c<celdas.length; c++)
+			if (celdas[c] == VACIA)
+				jugadas[n++] = c;
+		return n;
+	}
+
+	/**
+	 * Calcula la lnea ms larga de fichas iguales que pasa por una celda ocupada
+	 * @param celda ndice de la celda
+	 * @return el nmero de fichas de la lnea ms larga
+	 */
+	public int enLinea (int celda) {
+		int mejor;
+
+		mejor = 0;
+		for (int[] d : DIRECCIONES)
+			mejor = Math.max(mejor, 1 + contar(celda, d[0], d[1]) + contar(celda, -d[0], -d[1]));
+		return mejor;
+	}
+
+	/**
+	 * Cuenta las fichas iguales a la de una celda que le siguen en una direccin
+	 * @param celda ndice de la celda
+	 * @param df desplazamiento en filas
+	 * @param dc desplazamiento en columnas
+	 * @return el nmero de fichas consecutivas (sin contar la de la celda)
+	 */
+	int contar (int celda, int df, int dc) {
+		int f, c, n;
+		byte ficha;
+
+		ficha = celdas[celda];
+		f = celda / columnas + df;
+		c = celda % columnas + dc;
+		n = 0;
+		while (f >= 0 && f < filas && c >= 0 && c < columnas && celdas[f*columnas + c] == ficha) {
+			n++;
+			f += df;
+			c += dc;
+		}
+		return n;
+	}
+
+	/**
+	 * @param ficha ficha de un jugador
+	 * @return la ficha del oponente
+	 */
+	public static Contenido oponente (Contenido ficha) {
+		return ficha == Contenido.CRUZ ? Contenido.REDONDEL : Contenido.CRUZ;
+	}
+
+	/**
+	 * Construye el <code>Movimiento</code> correspondiente a una celda
+	 * @param celda ndice de la celda
+	 * @param valor valor asociado al movimiento
+	 * @return el <code>Movimiento</code>
+	 */
+	public Movimiento movimiento (int celda, int valor) {
+		return new Movimiento(celda / columnas, celda % columnas, valor);
+	}
+
+	/**
+	 * Imprime la disposicin del tablero actual
+	 */
+	public void print () {
+		System.out.println();
+		for (int i=0; i<filas; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (int j=0; j<columnas; j++) {
+				switch (celdas[i*columnas + j]) {
+					case 1: sb.append(" X "); break;
+					case 2: sb.append(" 0 "); break;
+					default: sb.append(" . "); break;
+				}
+			}
+			System.out.println(sb);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package org.ssii.busqueda.juegos.tresenraya;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Recuento de lneas de <code>EvaluacionLotes</code> con la Vector API. Es opcional: se
+ * compila aparte del paquete porque necesita el mdulo en incubacin
+ * <code>jdk.incubator.vector</code>, y <code>EvaluacionLotes</code> la carga por
+ * reflexin si est disponible.
+ * <pre>
+ * javac --add-modules jdk.incubator.vector ... *.java vectorial/*.java
+ * java --add-modules jdk.incubator.vector ...
+ * </pre>
+ * @since Oct 2026
+ * @version 1.0
+ * @see EvaluacionLotes
+ */
+class RecuentoVectorial implements EvaluacionLotes.Recuento {
+	static final VectorSpecies<Long> ESPECIE = LongVector.SPECIES_PREFERRED;
+
+	public int carriles () {
+		return ESPECIE.length();
+	}
+
+	/**
+	 * Recorre las lneas sobre el lote en bloques de <code>ESPECIE.length()</code>
+	 * posiciones, con mscaras en lugar de saltos. Los carriles posteriores a
+	 * <code>n</code> se calculan pero no se usan.
+	 */
+	public void contar (long[] lineas, long[] cruces, long[] redondeles, int n,
+			long[] dominadasX, long[] dominadasO, long[] completas) {
+		int carriles = ESPECIE.length();
+
+		for (long m : lineas) {
+			for (int i=0; i<n; i+=carriles) {
+				LongVector x = LongVector.fromArray(ESPECIE, cruces, i).and(m);
+				LongVector o = LongVector.fromArray(ESPECIE, redondeles, i).and(m);
+				LongVector.fromArray(ESPECIE, dominadasX, i).add(1L, o.eq(0L)).intoArray(dominadasX, i);
+				LongVector.fromArray(ESPECIE, dominadasO, i).add(1L, x.eq(0L)).intoArray(dominadasO, i);
+				LongVector.fromArray(ESPECIE, completas, i)
+						.lanewise(VectorOperators.OR, 1L, x.eq(m))
+						.lanewise(VectorOperators.OR, 2L, o.eq(m))
+						.intoArray(completas, i);
+			}
+		}
+	}
+}
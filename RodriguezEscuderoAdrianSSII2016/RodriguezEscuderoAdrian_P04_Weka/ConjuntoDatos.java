@@ -0,0 +1,314 @@
+package org.ssii.aprendizaje;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+
+/**
+ * Clase que implementa un conjunto de datos ledo de un fichero ARFF de Weka.
+ * Los valores se almacenan por columnas (un <code>double[]</code> por atributo):
+ * los atributos numricos guardan su valor y los nominales el ndice del valor
+ * dentro de su declaracin. Los valores ausentes (<code>?</code>) se guardan
+ * como <code>NaN</code>.
+ * @since Oct 2026
+ * @version 1.0
+ * @see KMedias
+ */
+public class ConjuntoDatos {
+	public static final String CODIFICACION = "ISO-8859-1"; // Codificacin de los ficheros de Datos/
+
+	public String relacion;			// Nombre de la relacin
+	public String[] nombres;		// Nombres de los atributos
+	public String[][] valores;		// Valores de los atributos nominales (null si es numrico)
+	double[][] columnas;			// Valores de las instancias por atributo
+	int numInstancias;				// Nmero de instancias almacenadas
+
+	/**
+	 * Constructor. Crea un conjunto de datos vaco con la cabecera indicada.
+	 * @param rel nombre de la relacin
+	 * @param nom nombres de los atributos
+	 * @param val valores de cada atributo nominal (<code>null</code> para los numricos)
+	 * @param capacidad nmero de instancias para el que se reserva espacio inicialmente
+	 */
+	public ConjuntoDatos (String rel, String[] nom, String[][] val, int capacidad) {
+		relacion = rel;
+		nombres = nom;
+		valores = val;
+		columnas = new double[nom.length][Math.max(capacidad, 1)];
+		numInstancias = 0;
+	}
+
+	/**
+	 * Constructor. Crea un conjunto de datos vaco con la misma cabecera que otro.
+	 * @param d <code>ConjuntoDatos</code> del que se copia la cabecera
+	 * @param capacidad nmero de instancias para el que se reserva espacio inicialmente
+	 */
+	public ConjuntoDatos (ConjuntoDatos d, int capacidad) {
+		this(d.relacion, d.nombres, d.valores, capacidad);
+	}
+
+	/**
+	 * @return Devuelve el nmero de atributos
+	 */
+	public int numAtributos () {
+		return nombres.length;
+	}
+
+	/**
+	 * @return Devuelve el nmero de instancias
+	 */
+	public int numInstancias () {
+		return numInstancias;
+	}
+
+	/**
+	 * Comprueba si un atributo es nominal
+	 * @param a ndice del atributo
+	 * @return <code>true</code> si el atributo es nominal
+	 */
+	public boolean esNominal (int a) {
+		return valores[a] != null;
+	}
+
+	/**
+	 * Obtiene el valor de un atributo en una instancia
+	 * @param a ndice del atributo
+	 * @param i ndice de la instancia
+	 * @return el valor (ndice del valor si el atributo es nominal) o <code>NaN</code> si falta
+	 */
+	public double valor (int a, int i) {
+		return columnas[a][i];
+	}
+
+	/**
+	 * Comprueba si falta el valor de un atributo en una instancia
+	 * @param a ndice del atributo
+	 * @param i ndice de la instancia
+	 * @return <code>true</code> si el valor es desconocido
+	 */
+	public boolean ausente (int a, int i) {
+		return Double.isNaN(columnas[a][i]);
+	}
+
+	/**
+	 * Aade una instancia al final del conjunto de datos
+	 * @param instancia valores de la instancia en el formato de <code>valor</code>
+	 */
+	public void anadir (double[] instancia) {
+		if (numInstancias == columnas[0].length) {
+			for (int a=0; a<columnas.length; a++) {
+				double[] nueva = new double[2*columnas[a].length];
+				System.arraycopy(columnas[a], 0, nueva, 0, numInstancias);
+				columnas[a] = nueva;
+			}
+		}
+		for (int a=0; a<columnas.length; a++)
+			columnas[a][numInstancias] = instancia[a];
+		numInstancias++;
+	}
+
+	/**
+	 * Elimina todas las instancias conservando la cabecera y el espacio reservado
+	 */
+	public void vaciar () {
+		numInstancias = 0;
+	}
+
+	/**
+	 * Lee la cabecera de un fichero ARFF (hasta la lnea <code>@data</code> incluida)
+	 * @param br <code>BufferedReader</code> situado al principio del fichero
+	 * @param capacidad nmero de instancias para el que se reserva espacio
+	 * @return un <code>ConjuntoDatos</code> vaco con la cabecera leda
+	 * @throws IOException si el fichero no se puede leer o la cabecera no es vlida
+	 */
+	public static ConjuntoDatos leerCabecera (BufferedReader br, int capacidad) throws IOException {
+		String linea, rel;
+		ArrayList<String> nom;
+		ArrayList<String[]> val;
+
+		rel = "";
+		nom = new ArrayList<String>();
+		val = new ArrayList<String[]>();
+		while ((linea = br.readLine()) != null) {
+			linea = linea.trim();
+			if (linea.isEmpty() || linea.startsWith("%"))
+				continue;
+			String minusc = linea.toLowerCase();
+			if (minusc.startsWith("@relation")) {
+				rel = quitarComillas(linea.substring(9).trim());
+			} else if (minusc.startsWith("@attribute")) {
+				String resto = linea.substring(10).trim();
+				int fin = finNombre(resto);
+				nom.add(quitarComillas(resto.substring(0, fin)));
+				String tipo = resto.substring(fin).trim();
+				if (tipo.startsWith("{")) {
+					ArrayList<String> v = separar(tipo.substring(1, tipo.lastIndexOf('}')));
+					val.add(v.toArray(new String[v.size()]));
+				} else if (tipo.toLowerCase().matches("numeric|real|integer")) {
+					val.add(null);
+				} else throw new IOException("Tipo de atributo no soportado: " + tipo);
+			} else if (minusc.startsWith("@data")) {
+				return new ConjuntoDatos(rel, nom.toArray(new String[nom.size()]),
+						val.toArray(new String[val.size()][]), capacidad);
+			}
+		}
+		throw new IOException("Fichero ARFF sin seccin @data");
+	}
+
+	/**
+	 * Lee instancias de la seccin <code>@data</code> de un fichero ARFF sustituyendo
+	 * las que contuviera el conjunto de datos. Permite procesar ficheros grandes
+	 * por lotes reutilizando el mismo espacio.
+	 * @param br <code>BufferedReader</code> situado en la seccin de datos
+	 * @param max nmero mximo de instancias a leer
+	 * @return nmero de instancias ledas (0 si se ha alcanzado el final del fichero)
+	 * @throws IOException si el fichero no se puede leer o contiene valores no vlidos
+	 */
+	public int leerInstancias (BufferedReader br, int max) throws IOException {
+		String linea;
+		double[] instancia;
+
+		vaciar();
+		instancia = new double[numAtributos()];
+		while (numInstancias < max && (linea = br.readLine()) != null) {
+			linea = linea.trim();
+			if (linea.isEmpty() || linea.startsWith("%"))
+				continue;
+			if (linea.startsWith("{"))
+				throw new IOException("Formato ARFF disperso no soportado");
+			ArrayList<String> campos = separar(linea);
+			if (campos.size() != numAtributos())
+				throw new IOException("Nmero de valores incorrecto en la instancia: " + linea);
+			for (int a=0; a<numAtributos(); a++)
+				instancia[a] = codificar(a, campos.get(a));
+			anadir(instancia);
+		}
+		return numInstancias;
+	}
+
+	/**
+	 * Lee completamente un fichero ARFF
+	 * @param fichero ruta del fichero
+	 * @return el <code>ConjuntoDatos</code> ledo
+	 * @throws IOException si el fichero no se puede leer o no es vlido
+	 */
+	public static ConjuntoDatos leerArff (String fichero) throws IOException {
+		BufferedReader br;
+		ConjuntoDatos d;
+
+		br = abrir(fichero);
+		try {
+			d = leerCabecera(br, 64);
+			d.leerInstancias(br, Integer.MAX_VALUE);
+		} finally {
+			br.close();
+		}
+		return d;
+	}
+
+	/**
+	 * Abre un fichero ARFF con la codificacin utilizada en los ficheros de datos
+	 * @param fichero ruta del fichero
+	 * @return <code>BufferedReader</code> situado al principio del fichero
+	 * @throws IOException si el fichero no se puede abrir
+	 */
+	public static BufferedReader abrir (String fichero) throws IOException {
+		return new BufferedReader(new InputStreamReader(new FileInputStream(fichero), CODIFICACION));
+	}
+
+	/**
+	 * Convierte el texto de un valor al formato interno
+	 * @param a ndice del atributo
+	 * @param texto valor tal y como aparece en el fichero
+	 * @return el valor codificado
+	 * @throws IOException si el valor no pertenece al atributo
+	 */
+	double codificar (int a, String texto) throws IOException {
+		if (texto.equals("?"))
+			return Double.NaN;
+		if (esNominal(a)) {
+			for (int v=0; v<valores[a].length; v++)
+				if (valores[a][v].equals(texto))
+					return v;
+			throw new IOException("Valor '" + texto + "' no declarado para el atributo " + nombres[a]);
+		}
+		try {
+			return Double.parseDouble(texto);
+		} catch (NumberFormatException e) {
+			throw new IOException("Valor numrico no vlido para el atributo " + nombres[a] + ": " + texto);
+		}
+	}
+
+	/**
+	 * Devuelve el texto de un valor de un atributo
+	 * @param a ndice del atributo
+	 * @param v valor codificado
+	 * @return el texto del valor
+	 */
+	public String texto (int a, double v) {
+		if (Double.isNaN(v))
+			return "?";
+		if (esNominal(a))
+			return valores[a][(int) v];
+		return Double.toString(v);
+	}
+
+	/**
+	 * Separa una lista de valores delimitados por comas respetando las comillas
+	 * @param linea texto a separar
+	 * @return los valores sin comillas ni espacios en los extremos
+	 */
+	static ArrayList<String> separar (String linea) {
+		ArrayList<String> campos;
+		StringBuilder actual;
+		char comilla;
+
+		campos = new ArrayList<String>();
+		actual = new StringBuilder();
+		comilla = 0;
+		for (int i=0; i<linea.length(); i++) {
+			char c = linea.charAt(i);
+			if (comilla != 0) {
+				if (c == comilla)
+					comilla = 0;
+				else actual.append(c);
+			} else if (c == '\'' || c == '"') {
+				comilla = c;
+			} else if (c == ',') {
+				campos.add(actual.toString().trim());
+				actual.setLength(0);
+			} else actual.append(c);
+		}
+		campos.add(actual.toString().trim());
+		return campos;
+	}
+
+	/**
+	 * Localiza el final del nombre de un atributo (que puede ir entre comillas)
+	 * @param texto declaracin del atributo tras <code>@attribute</code>
+	 * @return posicin siguiente al ltimo carcter del nombre
+	 */
+	static int finNombre (String texto) {
+		char c = texto.charAt(0);
+		if (c == '\'' || c == '"')
+			return texto.indexOf(c, 1) + 1;
+		int i = 0;
+		while (i < texto.length() && !Character.isWhitespace(texto.charAt(i)) && texto.charAt(i) != '{')
+			i++;
+		return i;
+	}
+
+	/**
+	 * Elimina las comillas que rodean un texto
+	 * @param texto texto posiblemente entre comillas
+	 * @return el texto sin comillas
+	 */
+	static String quitarComillas (String texto) {
+		if (texto.length() >= 2 && (texto.charAt(0) == '\'' || texto.charAt(0) == '"')
+				&& texto.charAt(texto.length()-1) == texto.charAt(0))
+			return texto.substring(1, texto.length()-1);
+		return texto;
+	}
+}
@@ -0,0 +1,704 @@
+package org.ssii.aprendizaje;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Clase que implementa el agrupamiento k-medias con la semntica de
+ * <code>weka.clusterers.SimpleKMeans</code> (ver "8 Empleados SimpleMeans.txt"):
+ * los valores ausentes se sustituyen globalmente por la media o la moda, los atributos
+ * numricos se normalizan al intervalo [0,1] con el mnimo y el mximo de los datos
+ * de entrenamiento y los nominales contribuyen con distancia 0 (mismo valor) o 1
+ * (distinto valor). El centroide de un atributo nominal es la moda del grupo, que se
+ * obtiene a partir de la suma de la codificacin one-hot de sus instancias.
+ * <p>
+ * La fase de asignacin se reparte por bloques de instancias entre varios hilos; cada
+ * bloque acumula sus propias sumas, por lo que cada iteracin es lineal en el nmero de
+ * instancias y la memoria adicional slo depende del nmero de bloques. Adems de la
+ * inicializacin aleatoria de Weka se ofrece k-means++ y un modo por mini-lotes para
+ * datos que se leen en streaming.
+ * @since Oct 2026
+ * @version 1.0
+ * @see ConjuntoDatos
+ */
+public class KMedias {
+	public enum Inicializacion {ALEATORIA, KMEANS_PP};	// Seleccin de los centroides iniciales
+
+	public static final int TAM_BLOQUE = 4096;	// Nmero mnimo de instancias por bloque de asignacin
+
+	public int k;								// Nmero de grupos
+	public int maxIteraciones;					// Lmite de iteraciones (-I en Weka)
+	public long semilla;						// Semilla aleatoria (-S en Weka)
+	public int hilos;							// Nmero de hilos de la fase de asignacin
+	public Inicializacion inicializacion;		// Mtodo de inicializacin
+
+	String[] nombres;							// Nombres de los atributos
+	String[][] valores;							// Valores de los atributos nominales
+	double[] sustituto;							// Media o moda de cada atributo (valores ausentes)
+	double[] minimo;							// Mnimo de cada atributo numrico
+	double[] rango;								// Rango (mximo - mnimo) de cada atributo numrico
+	double[][] centroides;						// Centroides normalizados; ndice de la moda si es nominal
+	long[][][] frecuencias;						// Frecuencias de los valores nominales en cada grupo
+	long[] tamano;								// Nmero de instancias asignadas a cada grupo
+	public long numInstancias;					// Instancias de entrenamiento (columna "Full Data")
+	public int iteraciones;						// Iteraciones realizadas en la ltima construccin
+	public double errorCuadratico;				// Suma de errores cuadrticos dentro de los grupos (NaN si no se conoce)
+	public double errorUltimoLote;				// Suma de errores cuadrticos del ltimo lote (modo por mini-lotes)
+	Random aleatorio;							// Generador de nmeros aleatorios
+	ExecutorService ejecutor;					// Hilos de la fase de asignacin
+
+	/**
+	 * Acumulador de los resultados de la fase de asignacin sobre un bloque de instancias
+	 */
+	static class Parcial {
+		double[][] sumas;		// Suma de los valores normalizados de cada atributo numrico por grupo
+		long[][][] frecuencias;	// Frecuencias de los valores nominales por grupo
+		long[] tamano;			// Instancias asignadas a cada grupo
+		double error;			// Suma de las distancias al cuadrado al centroide ms cercano
+		int cambios;			// Instancias que han cambiado de grupo
+
+		Parcial (int k, String[][] valores) {
+			sumas = new double[k][valores.length];
+			frecuencias = new long[k][valores.length][];
+			for (int c=0; c<k; c++)
+				for (int a=0; a<valores.length; a++)
+					if (valores[a] != null)
+						frecuencias[c][a] = new long[valores[a].length];
+			tamano = new long[k];
+		}
+
+		/**
+		 * Suma a este acumulador los resultados de otro bloque
+		 * @param p <code>Parcial</code> a sumar
+		 */
+		void sumar (Parcial p) {
+			for (int c=0; c<tamano.length; c++) {
+				tamano[c] += p.tamano[c];
+				for (int a=0; a<sumas[c].length; a++) {
+					if (frecuencias[c][a] != null) {
+						for (int v=0; v<frecuencias[c][a].length; v++)
+							frecuencias[c][a][v] += p.frecuencias[c][a][v];
+					} else sumas[c][a] += p.sumas[c][a];
+				}
+			}
+			error += p.error;
+			cambios += p.cambios;
+		}
+	}
+
+	/**
+	 * Estadsticos de cada atributo (media o moda, mnimo y mximo) acumulados sobre uno
+	 * o varios lotes de instancias
+	 */
+	static class Resumen {
+		double[] suma;			// Suma de los valores conocidos de cada atributo numrico
+		double[] minimo;		// Mnimo de cada atributo numrico
+		double[] maximo;		// Mximo de cada atributo numrico
+		long[] conocidos;		// Valores no ausentes de cada atributo
+		long[][] cuenta;		// Frecuencia de cada valor de los atributos nominales
+		long instancias;		// Instancias acumuladas
+
+		Resumen (ConjuntoDatos d) {
+			int na = d.numAtributos();
+			suma = new double[na];
+			minimo = new double[na];
+			maximo = new double[na];
+			conocidos = new long[na];
+			cuenta = new long[na][];
+			for (int a=0; a<na; a++) {
+				minimo[a] = Double.POSITIVE_INFINITY;
+				maximo[a] = Double.NEGATIVE_INFINITY;
+				if (d.esNominal(a))
+					cuenta[a] = new long[d.valores[a].length];
+			}
+		}
+
+		/**
+		 * Acumula las instancias de un lote
+		 * @param d <code>ConjuntoDatos</code> con las instancias del lote
+		 */
+		void acumular (ConjuntoDatos d) {
+			for (int a=0; a<suma.length; a++) {
+				for (int i=0; i<d.numInstancias(); i++) {
+					double v = d.valor(a, i);
+					if (Double.isNaN(v))
+						continue;
+					conocidos[a]++;
+					if (cuenta[a] != null) {
+						cuenta[a][(int) v]++;
+					} else {
+						suma[a] += v;
+						if (v < minimo[a]) minimo[a] = v;
+						if (v > maximo[a]) maximo[a] = v;
+					}
+				}
+			}
+			instancias += d.numInstancias();
+		}
+	}
+
+	/**
+	 * Constructor. Utiliza los mismos valores por defecto que SimpleKMeans
+	 * (500 iteraciones, semilla 10, inicializacin aleatoria) y tantos hilos como
+	 * procesadores disponibles.
+	 * @param grupos nmero de grupos
+	 */
+	public KMedias (int grupos) {
+		k = grupos;
+		maxIteraciones = 500;
+		semilla = 10;
+		hilos = Runtime.getRuntime().availableProcessors();
+		inicializacion = Inicializacion.ALEATORIA;
+	}
+
+	/**
+	 * Construye los grupos a partir de un conjunto de datos completo
+	 * @param d <code>ConjuntoDatos</code> de entrenamiento
+	 */
+	public void construir (ConjuntoDatos d) {
+		int[] asignacion;
+		Parcial p;
+
+		if (d.numInstancias() < k)
+			throw new IllegalArgumentException("Hay menos instancias que grupos");
+		preparar(d);
+		aleatorio = new Random(semilla);
+		if (inicializacion == Inicializacion.KMEANS_PP)
+			inicializarKMeansPP(d);
+		else inicializarAleatoria(d);
+
+		asignacion = new int[d.numInstancias()];
+		java.util.Arrays.fill(asignacion, -1);
+		iteraciones = 0;
+		do {
+			p = asignar(d, asignacion, true);
+			iteraciones++;
+			errorCuadratico = p.error;
+			actualizarCentroides(p);
+		} while (p.cambios > 0 && iteraciones < maxIteraciones);
+	}
+
+	/**
+	 * Actualiza los grupos con un lote de instancias (k-medias por mini-lotes). El primer
+	 * lote fija los centroides iniciales (y la normalizacin, si no se ha fijado antes con
+	 * <code>preparar</code> sobre todos los datos); en los siguientes cada centroide se
+	 * desplaza hacia las instancias que se le asignan con un paso inversamente proporcional
+	 * al nmero de instancias que ha recibido hasta el momento. El error de la asignacin
+	 * queda en <code>errorUltimoLote</code>, ya que slo corresponde a este lote.
+	 * @param lote <code>ConjuntoDatos</code> con las instancias del lote
+	 */
+	public void actualizarLote (ConjuntoDatos lote) {
+		int[] asignacion;
+		Parcial p;
+
+		if (lote.numInstancias() == 0)
+			return;
+		if (centroides == null) {
+			if (lote.numInstancias() < k)
+				throw new IllegalArgumentException("El primer lote tiene menos instancias que grupos");
+			if (minimo == null)
+				preparar(lote);
+			aleatorio = new Random(semilla);
+			if (inicializacion == Inicializacion.KMEANS_PP)
+				inicializarKMeansPP(lote);
+			else inicializarAleatoria(lote);
+			p = new Parcial(k, valores);
+			frecuencias = p.frecuencias;
+			tamano = p.tamano;
+			iteraciones = 0;
+		}
+
+		asignacion = new int[lote.numInstancias()];
+		p = asignar(lote, asignacion, false);
+		for (int i=0; i<lote.numInstancias(); i++) {
+			int c = asignacion[i];
+			double paso;
+
+			tamano[c]++;
+			paso = 1.0 / tamano[c];
+			for (int a=0; a<centroides[c].length; a++) {
+				double x = normalizado(lote, a, i);
+				if (valores[a] != null) {
+					long[] f = frecuencias[c][a];
+					f[(int) x]++;
+					if (f[(int) x] > f[(int) centroides[c][a]])
+						centroides[c][a] = x;
+				} else centroides[c][a] += paso * (x - centroides[c][a]);
+			}
+		}
+		iteraciones++;
+		errorUltimoLote = p.error;
+		errorCuadratico = Double.NaN;
+	}
+
+	/**
+	 * Construye los grupos procesando un fichero ARFF por lotes, sin cargarlo en memoria.
+	 * Se leen los datos tres veces: una primera pasada calcula los estadsticos de todos
+	 * los datos (normalizacin, valores de sustitucin y nmero de instancias), la segunda
+	 * actualiza los grupos lote a lote y la tercera asigna todas las instancias a los
+	 * grupos finales para obtener el tamao de cada grupo y el error sobre todos los datos.
+	 * @param fichero ruta del fichero ARFF
+	 * @param tamLote nmero de instancias de cada lote
+	 * @throws IOException si el fichero no se puede leer o no es vlido
+	 */
+	public void construirPorLotes (String fichero, int tamLote) throws IOException {
+		BufferedReader br;
+		ConjuntoDatos lote;
+		Resumen resumen;
+		Parcial total;
+
+		centroides = null;
+		br = ConjuntoDatos.abrir(fichero);
+		try {
+			lote = ConjuntoDatos.leerCabecera(br, tamLote);
+			resumen = new Resumen(lote);
+			while (lote.leerInstancias(br, tamLote) > 0)
+				resumen.acumular(lote);
+		} finally {
+			br.close();
+		}
+		if (resumen.instancias < k)
+			throw new IllegalArgumentException("Hay menos instancias que grupos");
+		preparar(lote, resumen);
+
+		br = ConjuntoDatos.abrir(fichero);
+		try {
+			lote = ConjuntoDatos.leerCabecera(br, tamLote);
+			while (lote.leerInstancias(br, tamLote) > 0)
+				actualizarLote(lote);
+		} finally {
+			br.close();
+		}
+
+		total = new Parcial(k, valores);
+		br = ConjuntoDatos.abrir(fichero);
+		try {
+			lote = ConjuntoDatos.leerCabecera(br, tamLote);
+			while (lote.leerInstancias(br, tamLote) > 0)
+				total.sumar(asignar(lote, new int[lote.numInstancias()], true));
+		} finally {
+			br.close();
+		}
+		tamano = total.tamano;
+		errorCuadratico = total.error;
+	}
+
+	/**
+	 * Asigna cada instancia de un conjunto de datos a su grupo ms cercano
+	 * @param d <code>ConjuntoDatos</code> con la misma cabecera que los datos de entrenamiento
+	 * @return el ndice del grupo de cada instancia
+	 */
+	public int[] agrupar (ConjuntoDatos d) {
+		int[] asignacion;
+
+		asignacion = new int[d.numInstancias()];
+		asignar(d, asignacion, false);
+		return asignacion;
+	}
+
+	/**
+	 * Calcula el valor de sustitucin de los valores ausentes y el rango de cada atributo
+	 * @param d <code>ConjuntoDatos</code> de entrenamiento
+	 */
+	void preparar (ConjuntoDatos d) {
+		Resumen r;
+
+		r = new Resumen(d);
+		r.acumular(d);
+		preparar(d, r);
+	}
+
+	/**
+	 * Fija el valor de sustitucin de los valores ausentes y el rango de cada atributo a
+	 * partir de los estadsticos de los datos de entrenamiento
+	 * @param d <code>ConjuntoDatos</code> con la cabecera de los datos de entrenamiento
+	 * @param r <code>Resumen</code> de todos los datos de entrenamiento
+	 */
+	void preparar (ConjuntoDatos d, Resumen r) {
+		int na;
+
+		na = d.numAtributos();
+		nombres = d.nombres;
+		valores = d.valores;
+		sustituto = new double[na];
+		minimo = new double[na];
+		rango = new double[na];
+		numInstancias = r.instancias;
+		for (int a=0; a<na; a++) {
+			if (r.cuenta[a] != null) {
+				sustituto[a] = moda(r.cuenta[a]);
+			} else if (r.conocidos[a] > 0) {
+				sustituto[a] = r.suma[a] / r.conocidos[a];
+				minimo[a] = r.minimo[a];
+				rango[a] = r.maximo[a] - r.minimo[a];
+			}
+		}
+	}
+
+	/**
+	 * Devuelve el valor normalizado de un atributo, sustituyendo los valores ausentes
+	 * @param d <code>ConjuntoDatos</code> que contiene la instancia
+	 * @param a ndice del atributo
+	 * @param i ndice de la instancia
+	 * @return el valor en [0,1] si es numrico o el ndice del valor si es nominal
+	 */
+	double normalizado (ConjuntoDatos d, int a, int i) {
+		double v;
+
+		v = d.valor(a, i);
+		if (Double.isNaN(v))
+			v = sustituto[a];
+		if (valores[a] != null)
+			return v;
+		if (rango[a] == 0)
+			return 0;
+		return (v - minimo[a]) / rango[a];
+	}
+
+	/**
+	 * Calcula el cuadrado de la distancia eucldea entre una instancia y un centroide
+	 * @param d <code>ConjuntoDatos</code> que contiene la instancia
+	 * @param i ndice de la instancia
+	 * @param c centroide normalizado
+	 * @return la distancia al cuadrado
+	 */
+	double distancia (ConjuntoDatos d, int i, double[] c) {
+		double suma;
+
+		suma = 0;
+		for (int a=0; a<c.length; a++) {
+			double x = normalizado(d, a, i);
+			if (valores[a] != null) {
+				if (x != c[a])
+					suma += 1;
+			} else suma += (x - c[a]) * (x - c[a]);
+		}
+		return suma;
+	}
+
+	/**
+	 * Obtiene los valores normalizados de una instancia
+	 * @param d <code>ConjuntoDatos</code> que contiene la instancia
+	 * @param i ndice de la instancia
+	 * @return vector con los valores normalizados
+	 */
+	double[] instancia (ConjuntoDatos d, int i) {
+		double[] x;
+
+		x = new double[d.numAtributos()];
+		for (int a=0; a<x.length; a++)
+			x[a] = normalizado(d, a, i);
+		return x;
+	}
+
+	/**
+	 * Elige como centroides iniciales k instancias distintas al azar (como SimpleKMeans)
+	 * @param d <code>ConjuntoDatos</code> de entrenamiento
+	 */
+	void inicializarAleatoria (ConjuntoDatos d) {
+		int[] orden;
+		int elegidos;
+
+		centroides = new double[k][];
+		orden = new int[d.numInstancias()];
+		for (int i=0; i<orden.length; i++)
+			orden[i] = i;
+		elegidos = 0;
+		for (int i=orden.length-1; i>=0 && elegidos<k; i--) {
+			int j = aleatorio.nextInt(i+1);
+			int t = orden[i]; orden[i] = orden[j]; orden[j] = t;
+			double[] x = instancia(d, orden[i]);
+			boolean repetido = false;
+			for (int c=0; c<elegidos && !repetido; c++)
+				repetido = java.util.Arrays.equals(x, centroides[c]);
+			if (!repetido)
+				centroides[elegidos++] = x;
+		}
+		// Si hay menos instancias distintas que grupos se repite la ltima
+		while (elegidos < k) {
+			centroides[elegidos] = centroides[elegidos-1].clone();
+			elegidos++;
+		}
+	}
+
+	/**
+	 * Elige los centroides iniciales con k-means++: cada nuevo centroide es una instancia
+	 * elegida con probabilidad proporcional al cuadrado de su distancia al centroide
+	 * ms cercano de los ya elegidos.
+	 * @param d <code>ConjuntoDatos</code> de entrenamiento
+	 */
+	void inicializarKMeansPP (ConjuntoDatos d) {
+		double[] minDist;
+		int n;
+
+		n = d.numInstancias();
+		centroides = new double[k][];
+		centroides[0] = instancia(d, aleatorio.nextInt(n));
+		minDist = new double[n];
+		for (int i=0; i<n; i++)
+			minDist[i] = distancia(d, i, centroides[0]);
+		for (int c=1; c<k; c++) {
+			double total, r;
+			int elegida;
+
+			total = 0;
+			for (int i=0; i<n; i++)
+				total += minDist[i];
+			elegida = n-1;
+			if (total > 0) {
+				r = aleatorio.nextDouble() * total;
+				for (int i=0; i<n; i++) {
+					r -= minDist[i];
+					if (r < 0) {
+						elegida = i;
+						break;
+					}
+				}
+			} else elegida = aleatorio.nextInt(n);
+			centroides[c] = instancia(d, elegida);
+			for (int i=0; i<n; i++)
+				minDist[i] = Math.min(minDist[i], distancia(d, i, centroides[c]));
+		}
+	}
+
+	/**
+	 * Asigna un bloque de instancias a su centroide ms cercano
+	 * @param d <code>ConjuntoDatos</code> que contiene las instancias
+	 * @param desde ndice de la primera instancia del bloque
+	 * @param hasta ndice siguiente a la ltima instancia del bloque
+	 * @param asignacion grupo de cada instancia (se actualiza)
+	 * @param acumular si es <code>true</code> acumula las sumas para recalcular los centroides
+	 * @return el <code>Parcial</code> del bloque
+	 */
+	Parcial asignarBloque (ConjuntoDatos d, int desde, int hasta, int[] asignacion, boolean acumular) {
+		Parcial p;
+
+		p = new Parcial(acumular ? k : 0, valores);
+		for (int i=desde; i<hasta; i++) {
+			int mejor = 0;
+			double mejorDist = Double.POSITIVE_INFINITY;
+			for (int c=0; c<k; c++) {
+				double dist = distancia(d, i, centroides[c]);
+				if (dist < mejorDist) {
+					mejorDist = dist;
+					mejor = c;
+				}
+			}
+			if (asignacion[i] != mejor)
+				p.cambios++;
+			asignacion[i] = mejor;
+			p.error += mejorDist;
+			if (acumular) {
+				p.tamano[mejor]++;
+				for (int a=0; a<valores.length; a++) {
+					double x = normalizado(d, a, i);
+					if (valores[a] != null)
+						p.frecuencias[mejor][a][(int) x]++;
+					else p.sumas[mejor][a] += x;
+				}
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * Fase de asignacin: reparte las instancias en bloques entre los hilos disponibles
+	 * y combina los resultados de todos los bloques
+	 * @param d <code>ConjuntoDatos</code> que contiene las instancias
+	 * @param asignacion grupo de cada instancia (se actualiza)
+	 * @param acumular si es <code>true</code> acumula las sumas para recalcular los centroides
+	 * @return el <code>Parcial</code> con los resultados combinados
+	 */
+	Parcial asignar (final ConjuntoDatos d, final int[] asignacion, final boolean acumular) {
+		ArrayList<Future<Parcial>> bloques;
+		Parcial total;
+		int n, tam;
+
+		n = d.numInstancias();
+		tam = Math.max(TAM_BLOQUE, (n + 4*hilos - 1) / (4*hilos));
+		if (hilos <= 1 || n <= tam)
+			return asignarBloque(d, 0, n, asignacion, acumular);
+
+		bloques = new ArrayList<Future<Parcial>>();
+		for (int desde=0; desde<n; desde+=tam) {
+			final int ini = desde;
+			final int fin = Math.min(n, desde+tam);
+			bloques.add(ejecutor().submit(new Callable<Parcial>() {
+				public Parcial call () {
+					return asignarBloque(d, ini, fin, asignacion, acumular);
+				}
+			}));
+		}
+		total = new Parcial(acumular ? k : 0, valores);
+		try {
+			for (Future<Parcial> f : bloques) {
+				Parcial p = f.get();
+				if (acumular)
+					total.sumar(p);
+				else {
+					total.error += p.error;
+					total.cambios += p.cambios;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Asignacin interrumpida", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("ERROR en la fase de asignacin", e.getCause());
+		}
+		return total;
+	}
+
+	/**
+	 * Recalcula los centroides a partir de las sumas de la fase de asignacin. Los grupos
+	 * que se quedan vacos conservan su centroide.
+	 * @param p <code>Parcial</code> con los resultados combinados de todos los bloques
+	 */
+	void actualizarCentroides (Parcial p) {
+		for (int c=0; c<k; c++) {
+			if (p.tamano[c] == 0)
+				continue;
+			for (int a=0; a<valores.length; a++) {
+				if (valores[a] != null)
+					centroides[c][a] = moda(p.frecuencias[c][a]);
+				else centroides[c][a] = p.sumas[c][a] / p.tamano[c];
+			}
+		}
+		frecuencias = p.frecuencias;
+		tamano = p.tamano;
+	}
+
+	/**
+	 * @param cuenta frecuencia de cada valor
+	 * @return el ndice del valor ms frecuente (el primero en caso de empate)
+	 */
+	static int moda (long[] cuenta) {
+		int m;
+
+		m = 0;
+		for (int v=1; v<cuenta.length; v++)
+			if (cuenta[v] > cuenta[m])
+				m = v;
+		return m;
+	}
+
+	/**
+	 * @return el servicio de ejecucin de la fase de asignacin (se crea al usarlo por primera vez)
+	 */
+	synchronized ExecutorService ejecutor () {
+		if (ejecutor == null) {
+			ejecutor = Executors.newFixedThreadPool(hilos, new ThreadFactory() {
+				public Thread newThread (Runnable r) {
+					Thread t = new Thread(r, "kmedias");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return ejecutor;
+	}
+
+	/**
+	 * Libera los hilos de la fase de asignacin
+	 */
+	public synchronized void cerrar () {
+		if (ejecutor != null) {
+			ejecutor.shutdown();
+			ejecutor = null;
+		}
+	}
+
+	/**
+	 * Devuelve el valor de un centroide en la escala original del atributo
+	 * @param c ndice del grupo
+	 * @param a ndice del atributo
+	 * @return el valor desnormalizado (ndice del valor si el atributo es nominal)
+	 */
+	public double centroide (int c, int a) {
+		if (valores[a] != null)
+			return centroides[c][a];
+		return minimo[a] + centroides[c][a] * rango[a];
+	}
+
+	/**
+	 * Imprime los centroides con el mismo formato que la salida de SimpleKMeans
+	 */
+	public void print () {
+		long total;
+
+		total = 0;
+		for (int c=0; c<k; c++)
+			total += tamano[c];
+		System.out.println("Number of iterations: " + iteraciones);
+		if (Double.isNaN(errorCuadratico))
+			System.out.println("Within cluster sum of squared errors (last batch only): " + errorUltimoLote);
+		else System.out.println("Within cluster sum of squared errors: " + errorCuadratico);
+		System.out.println();
+		System.out.println("Cluster centroids:");
+		System.out.print(String.format("%-14s%11s", "Attribute", "Full Data"));
+		for (int c=0; c<k; c++)
+			System.out.print(String.format("%11s", c));
+		System.out.println();
+		System.out.print(String.format("%-14s%11s", "", "(" + numInstancias + ")"));
+		for (int c=0; c<k; c++)
+			System.out.print(String.format("%11s", "(" + tamano[c] + ")"));
+		System.out.println();
+		for (int a=0; a<valores.length; a++) {
+			System.out.print(String.format("%-14s%11s", nombres[a].trim(), texto(a, sustituto[a])));
+			for (int c=0; c<k; c++)
+				System.out.print(String.format("%11s", texto(a, centroide(c, a))));
+			System.out.println();
+		}
+		System.out.println();
+		System.out.println("Clustered Instances");
+		for (int c=0; c<k; c++)
+			System.out.println(String.format("%-7d %d (%3d%%)", c, tamano[c], Math.round(100.0*tamano[c]/total)));
+	}
+
+	/**
+	 * @param a ndice del atributo
+	 * @param v valor en la escala original
+	 * @return el texto con el que se muestra el valor
+	 */
+	String texto (int a, double v) {
+		if (valores[a] != null)
+			return valores[a][(int) v];
+		if (v == Math.rint(v))
+			return Long.toString((long) v);
+		return String.format(java.util.Locale.ROOT, "%.4f", v);
+	}
+
+	/**
+	 * Agrupa los empleados de Datos/Empleados.arff en tres grupos (como en
+	 * "8 Empleados SimpleMeans.txt")
+	 * @param args fichero ARFF, nmero de grupos y, opcionalmente, tamao de lote
+	 * para el modo por mini-lotes
+	 */
+	public static void main (String[] args) {
+		String fichero;
+		KMedias kmedias;
+
+		fichero = args.length > 0 ? args[0] : "Datos/Empleados.arff";
+		kmedias = new KMedias(args.length > 1 ? Integer.parseInt(args[1]) : 3);
+		try {
+			if (args.length > 2) {
+				kmedias.inicializacion = Inicializacion.KMEANS_PP;
+				kmedias.construirPorLotes(fichero, Integer.parseInt(args[2]));
+			} else kmedias.construir(ConjuntoDatos.leerArff(fichero));
+			kmedias.print();
+		} catch (IOException e) {
+			System.out.println("ERROR leyendo el fichero " + fichero);
+			e.printStackTrace();
+		} finally {
+			kmedias.cerrar();
+		}
+	}
+}
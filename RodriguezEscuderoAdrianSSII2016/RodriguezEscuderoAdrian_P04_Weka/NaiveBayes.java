@@ -0,0 +1,158 @@
+package org.ssii.aprendizaje;
+
+/**
+ * Clase que implementa un clasificador Naive Bayes sobre un subconjunto de atributos
+ * de un <code>ConjuntoDatos</code>. Los atributos nominales se estiman con correccin de
+ * Laplace y los numricos con una distribucin normal. Los valores ausentes se ignoran
+ * tanto al construir el clasificador como al clasificar.
+ * @since Oct 2026
+ * @version 1.0
+ * @see ConjuntoDatos
+ * @see SeleccionAtributos
+ */
+public class NaiveBayes {
+	public static final double DESV_MINIMA = 1e-6;	// Desviacin tpica mnima de los atributos numricos
+
+	int clase;					// ndice del atributo clase
+	long atributos;				// Mscara de bits de los atributos utilizados
+	double[] logPriori;			// Logaritmo de la probabilidad a priori de cada clase
+	double[][][] logCondicional;	// Logaritmo de P(valor | clase) de los atributos nominales [a][c][v]
+	double[][] media;			// Media de los atributos numricos por clase [a][c]
+	double[][] desv;			// Desviacin tpica de los atributos numricos por clase [a][c]
+
+	/**
+	 * Constructor.
+	 * @param cl ndice del atributo clase (debe ser nominal)
+	 * @param atr mscara de bits con los atributos que utiliza el clasificador
+	 */
+	public NaiveBayes (int cl, long atr) {
+		clase = cl;
+		atributos = atr;
+	}
+
+	/**
+	 * Construye el clasificador con las instancias que no pertenecen a un pliegue
+	 * @param d <code>ConjuntoDatos</code> de entrenamiento
+	 * @param pliegue pliegue de cada instancia (<code>null</code> si se usan todas)
+	 * @param excluido pliegue cuyas instancias no se utilizan
+	 */
+	public void construir (ConjuntoDatos d, int[] pliegue, int excluido) {
+		int nc, na;
+		double[] cuentaClase;
+		double total;
+
+		nc = d.valores[clase].length;
+		na = d.numAtributos();
+		cuentaClase = new double[nc];
+		logCondicional = new double[na][][];
+		media = new double[na][];
+		desv = new double[na][];
+		for (int a=0; a<na; a++) {
+			if (!usa(a))
+				continue;
+			if (d.esNominal(a))
+				logCondicional[a] = new double[nc][d.valores[a].length];
+			else {
+				media[a] = new double[nc];
+				desv[a] = new double[nc];
+			}
+		}
+
+		// Primera pasada: frecuencias y sumas
+		double[][] conocidos = new double[na][nc];
+		total = 0;
+		for (int i=0; i<d.numInstancias(); i++) {
+			if (pliegue != null && pliegue[i] == excluido)
+				continue;
+			if (d.ausente(clase, i))
+				continue;
+			int c = (int) d.valor(clase, i);
+			cuentaClase[c]++;
+			total++;
+			for (int a=0; a<na; a++) {
+				if (!usa(a) || d.ausente(a, i))
+					continue;
+				conocidos[a][c]++;
+				if (logCondicional[a] != null)
+					logCondicional[a][c][(int) d.valor(a, i)]++;
+				else media[a][c] += d.valor(a, i);
+			}
+		}
+		for (int a=0; a<na; a++)
+			if (media[a] != null)
+				for (int c=0; c<nc; c++)
+					if (conocidos[a][c] > 0)
+						media[a][c] /= conocidos[a][c];
+
+		// Segunda pasada: varianzas de los atributos numricos
+		for (int i=0; i<d.numInstancias(); i++) {
+			if (pliegue != null && pliegue[i] == excluido)
+				continue;
+			if (d.ausente(clase, i))
+				continue;
+			int c = (int) d.valor(clase, i);
+			for (int a=0; a<na; a++) {
+				if (media[a] == null || d.ausente(a, i))
+					continue;
+				double dif = d.valor(a, i) - media[a][c];
+				desv[a][c] += dif * dif;
+			}
+		}
+
+		logPriori = new double[nc];
+		for (int c=0; c<nc; c++) {
+			logPriori[c] = Math.log((cuentaClase[c] + 1) / (total + nc));
+			for (int a=0; a<na; a++) {
+				if (logCondicional[a] != null) {
+					int nv = logCondicional[a][c].length;
+					for (int v=0; v<nv; v++)
+						logCondicional[a][c][v] = Math.log((logCondicional[a][c][v] + 1) / (conocidos[a][c] + nv));
+				} else if (desv[a] != null) {
+					if (conocidos[a][c] > 0)
+						desv[a][c] = Math.sqrt(desv[a][c] / conocidos[a][c]);
+					desv[a][c] = Math.max(desv[a][c], DESV_MINIMA);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Clasifica una instancia
+	 * @param d <code>ConjuntoDatos</code> que contiene la instancia
+	 * @param i ndice de la instancia
+	 * @return el ndice de la clase ms probable
+	 */
+	public int clasificar (ConjuntoDatos d, int i) {
+		int mejor;
+		double mejorLog;
+
+		mejor = 0;
+		mejorLog = Double.NEGATIVE_INFINITY;
+		for (int c=0; c<logPriori.length; c++) {
+			double log = logPriori[c];
+			for (int a=0; a<d.numAtributos(); a++) {
+				if (!usa(a) || d.ausente(a, i))
+					continue;
+				if (logCondicional[a] != null)
+					log += logCondicional[a][c][(int) d.valor(a, i)];
+				else {
+					double z = (d.valor(a, i) - media[a][c]) / desv[a][c];
+					log += -0.5 * z * z - Math.log(desv[a][c]);
+				}
+			}
+			if (log > mejorLog) {
+				mejorLog = log;
+				mejor = c;
+			}
+		}
+		return mejor;
+	}
+
+	/**
+	 * @param a ndice del atributo
+	 * @return <code>true</code> si el clasificador utiliza el atributo
+	 */
+	boolean usa (int a) {
+		return a != clase && (atributos & (1L << a)) != 0;
+	}
+}
@@ -0,0 +1,479 @@
+package org.ssii.aprendizaje;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clase que implementa la seleccin de atributos con un evaluador envolvente
+ * (como <code>weka.attributeSelection.WrapperSubsetEval</code> con NaiveBayes, ver
+ * "5.2 Farmaco Selec attributes wrapperSubEval ExhaustiveSearch.txt"): el mrito de un
+ * subconjunto de atributos es la tasa de acierto en validacin cruzada estratificada
+ * de un clasificador <code>NaiveBayes</code> que slo utiliza esos atributos.
+ * <p>
+ * Los subconjuntos se representan con una mscara de bits (el bit <code>a</code> indica
+ * que se usa el atributo <code>a</code>). Las evaluaciones se reparten entre los hilos de
+ * un <code>ExecutorService</code> y se memorizan por mscara durante cada bsqueda, de
+ * forma que ningn subconjunto se evala dos veces aunque se solicite a la vez desde
+ * varios puntos de la bsqueda. La bsqueda exhaustiva no memoriza nada, porque nunca
+ * repite un subconjunto y la memoria llegara a tener 2^24 entradas.
+ * @since Oct 2026
+ * @version 1.0
+ * @see NaiveBayes
+ * @see ConjuntoDatos
+ */
+public class SeleccionAtributos {
+	public enum Busqueda {EXHAUSTIVA, HACIA_ADELANTE, HACIA_ATRAS, PRIMERO_EL_MEJOR};	// Estrategias de bsqueda
+
+	public static final int MAX_EXHAUSTIVA = 24;	// Mximo de atributos candidatos para la bsqueda exhaustiva
+	public static final int LOTE = 4096;			// Subconjuntos enviados a la vez en la bsqueda exhaustiva
+
+	ConjuntoDatos datos;			// Datos sobre los que se evalan los subconjuntos
+	int clase;						// ndice del atributo clase
+	long candidatos;				// Mscara con todos los atributos seleccionables
+	int[] pliegue;					// Pliegue de validacin cruzada de cada instancia
+	int numPliegues;				// Nmero de pliegues (-F en Weka)
+	public int limiteEstancamiento;	// Expansiones sin mejora antes de parar PRIMERO_EL_MEJOR
+	int hilos;						// Nmero de hilos de evaluacin
+	ExecutorService ejecutor;		// Hilos de evaluacin
+	ConcurrentHashMap<Long, Future<Double>> memoria;	// Mrito de los subconjuntos solicitados en la bsqueda
+	AtomicInteger evaluaciones;		// Nmero de subconjuntos evaluados realmente en la bsqueda
+
+	public long mejorSubconjunto;	// Mscara del mejor subconjunto encontrado
+	public double mejorMerito;		// Mrito del mejor subconjunto encontrado
+
+	/**
+	 * Constructor. Prepara los pliegues estratificados de la validacin cruzada.
+	 * @param d <code>ConjuntoDatos</code> con los datos
+	 * @param cl ndice del atributo clase (debe ser nominal)
+	 * @param pliegues nmero de pliegues de la validacin cruzada
+	 * @param semilla semilla para barajar las instancias antes de repartirlas en pliegues
+	 * @param numHilos nmero de hilos de evaluacin
+	 */
+	public SeleccionAtributos (ConjuntoDatos d, int cl, int pliegues, long semilla, int numHilos) {
+		if (d.numAtributos() > 63)
+			throw new IllegalArgumentException("Se admiten como mximo 63 atributos");
+		if (!d.esNominal(cl))
+			throw new IllegalArgumentException("El atributo clase debe ser nominal");
+		datos = d;
+		clase = cl;
+		candidatos = ((1L << d.numAtributos()) - 1) & ~(1L << cl);
+		numPliegues = pliegues;
+		limiteEstancamiento = 5;
+		hilos = numHilos;
+		memoria = new ConcurrentHashMap<Long, Future<Double>>();
+		evaluaciones = new AtomicInteger();
+		pliegue = estratificar(d, cl, pliegues, new Random(semilla));
+		ejecutor = Executors.newFixedThreadPool(hilos, new ThreadFactory() {
+			public Thread newThread (Runnable r) {
+				Thread t = new Thread(r, "seleccion");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Reparte las instancias en pliegues manteniendo la proporcin de cada clase
+	 * @param d <code>ConjuntoDatos</code> con los datos
+	 * @param cl ndice del atributo clase
+	 * @param pliegues nmero de pliegues
+	 * @param aleatorio generador con el que se barajan las instancias
+	 * @return el pliegue de cada instancia
+	 */
+	static int[] estratificar (ConjuntoDatos d, int cl, int pliegues, Random aleatorio) {
+		int[] orden, resultado;
+		int n, siguiente;
+
+		n = d.numInstancias();
+		orden = new int[n];
+		for (int i=0; i<n; i++)
+			orden[i] = i;
+		for (int i=n-1; i>0; i--) {
+			int j = aleatorio.nextInt(i+1);
+			int t = orden[i]; orden[i] = orden[j]; orden[j] = t;
+		}
+		resultado = new int[n];
+		siguiente = 0;
+		// Las instancias de cada clase se asignan por turnos a los pliegues
+		for (int c=-1; c<d.valores[cl].length; c++) {
+			for (int i=0; i<n; i++) {
+				int inst = orden[i];
+				int ci = d.ausente(cl, inst) ? -1 : (int) d.valor(cl, inst);
+				if (ci == c)
+					resultado[inst] = siguiente++ % pliegues;
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * Calcula el mrito de un subconjunto (tasa de acierto en validacin cruzada)
+	 * @param subconjunto mscara de bits con los atributos
+	 * @return la proporcin de instancias bien clasificadas
+	 */
+	double validacionCruzada (long subconjunto) {
+		int aciertos, total;
+
+		evaluaciones.incrementAndGet();
+		aciertos = 0;
+		total = 0;
+		for (int f=0; f<numPliegues; f++) {
+			NaiveBayes nb = new NaiveBayes(clase, subconjunto);
+			nb.construir(datos, pliegue, f);
+			for (int i=0; i<datos.numInstancias(); i++) {
+				if (pliegue[i] != f || datos.ausente(clase, i))
+					continue;
+				total++;
+				if (nb.clasificar(datos, i) == (int) datos.valor(clase, i))
+					aciertos++;
+			}
+		}
+		return total == 0 ? 0 : (double) aciertos / total;
+	}
+
+	/**
+	 * Solicita la evaluacin de un subconjunto. Si ya se haba solicitado se devuelve
+	 * el resultado memorizado (o pendiente) en lugar de evaluarlo de nuevo.
+	 * @param subconjunto mscara de bits con los atributos
+	 * @return <code>Future</code> con el mrito del subconjunto
+	 */
+	public Future<Double> evaluarAsincrono (long subconjunto) {
+		Future<Double> f;
+		FutureTask<Double> tarea;
+
+		f = memoria.get(subconjunto);
+		if (f == null) {
+			tarea = tarea(subconjunto);
+			f = memoria.putIfAbsent(subconjunto, tarea);
+			if (f == null) {
+				f = tarea;
+				ejecutor.execute(tarea);
+			}
+		}
+		return f;
+	}
+
+	/**
+	 * @param subconjunto mscara de bits con los atributos
+	 * @return tarea (sin lanzar) que calcula el mrito del subconjunto
+	 */
+	FutureTask<Double> tarea (final long subconjunto) {
+		return new FutureTask<Double>(new Callable<Double>() {
+			public Double call () {
+				return validacionCruzada(subconjunto);
+			}
+		});
+	}
+
+	/**
+	 * Evala un subconjunto esperando el resultado
+	 * @param subconjunto mscara de bits con los atributos
+	 * @return el mrito del subconjunto
+	 */
+	public double evaluar (long subconjunto) {
+		return obtener(evaluarAsincrono(subconjunto));
+	}
+
+	/**
+	 * Evala en paralelo una lista de subconjuntos y actualiza el mejor encontrado
+	 * @param subconjuntos mscaras de bits de los subconjuntos
+	 * @param memorizar <code>true</code> para pasar por <code>memoria</code> y
+	 * <code>false</code> para evaluarlos sin guardarlos (subconjuntos que no se repiten)
+	 * @return el mrito de cada subconjunto
+	 */
+	double[] evaluarTodos (long[] subconjuntos, boolean memorizar) {
+		ArrayList<Future<Double>> pendientes;
+		double[] meritos;
+
+		pendientes = new ArrayList<Future<Double>>(subconjuntos.length);
+		for (long s : subconjuntos)
+			if (memorizar)
+				pendientes.add(evaluarAsincrono(s));
+			else {
+				FutureTask<Double> t = tarea(s);
+				ejecutor.execute(t);
+				pendientes.add(t);
+			}
+		meritos = new double[subconjuntos.length];
+		for (int i=0; i<subconjuntos.length; i++) {
+			meritos[i] = obtener(pendientes.get(i));
+			considerar(subconjuntos[i], meritos[i]);
+		}
+		return meritos;
+	}
+
+	/**
+	 * Actualiza el mejor subconjunto. En caso de empate se prefiere el de menos atributos.
+	 * @param subconjunto mscara de bits con los atributos
+	 * @param merito mrito del subconjunto
+	 * @return <code>true</code> si el subconjunto pasa a ser el mejor
+	 */
+	boolean considerar (long subconjunto, double merito) {
+		if (merito > mejorMerito || (merito == mejorMerito
+				&& Long.bitCount(subconjunto) < Long.bitCount(mejorSubconjunto))) {
+			mejorMerito = merito;
+			mejorSubconjunto = subconjunto;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Busca el mejor subconjunto de atributos con la estrategia indicada. Cada bsqueda
+	 * empieza con la memoria de evaluaciones vaca, de forma que el nmero de
+	 * evaluaciones y los subconjuntos explorados no dependen de bsquedas anteriores.
+	 * @param b <code>Busqueda</code> a realizar
+	 * @return mscara de bits del mejor subconjunto encontrado
+	 */
+	public long buscar (Busqueda b) {
+		memoria.clear();
+		evaluaciones.set(0);
+		mejorSubconjunto = 0;
+		mejorMerito = -1;
+		switch (b) {
+			case EXHAUSTIVA:
+				exhaustiva();
+				break;
+			case HACIA_ADELANTE:
+				voraz(0, true);
+				break;
+			case HACIA_ATRAS:
+				voraz(candidatos, false);
+				break;
+			case PRIMERO_EL_MEJOR:
+				primeroElMejor();
+				break;
+		}
+		return mejorSubconjunto;
+	}
+
+	/**
+	 * Bsqueda exhaustiva: evala todos los subconjuntos, envindolos por lotes para no
+	 * tener pendientes a la vez ms de <code>LOTE</code> evaluaciones. Slo se conserva el
+	 * mejor subconjunto, as que la memoria no depende del nmero de subconjuntos.
+	 */
+	void exhaustiva () {
+		int[] indices;
+		long total;
+
+		indices = indicesCandidatos();
+		if (indices.length > MAX_EXHAUSTIVA)
+			throw new IllegalStateException("Demasiados atributos para una bsqueda exhaustiva: " + indices.length);
+		total = 1L << indices.length;
+		for (long inicio=0; inicio<total; inicio+=LOTE) {
+			int tam = (int) Math.min(LOTE, total - inicio);
+			long[] lote = new long[tam];
+			for (int i=0; i<tam; i++)
+				lote[i] = expandir(inicio + i, indices);
+			evaluarTodos(lote, false);
+		}
+	}
+
+	/**
+	 * Bsqueda voraz hacia adelante (aadiendo atributos) o hacia atrs (eliminndolos):
+	 * en cada paso se evalan en paralelo todos los vecinos y se contina por el mejor
+	 * mientras mejore el mrito
+	 * @param inicial subconjunto de partida
+	 * @param adelante <code>true</code> para aadir atributos, <code>false</code> para eliminarlos
+	 */
+	void voraz (long inicial, boolean adelante) {
+		long actual;
+		double merito;
+
+		actual = inicial;
+		merito = evaluar(actual);
+		considerar(actual, merito);
+		while (true) {
+			long[] vecinos = vecinos(actual, adelante);
+			if (vecinos.length == 0)
+				break;
+			double[] m = evaluarTodos(vecinos, true);
+			int mejor = 0;
+			for (int i=1; i<m.length; i++)
+				if (m[i] > m[mejor])
+					mejor = i;
+			if (m[mejor] <= merito)
+				break;
+			actual = vecinos[mejor];
+			merito = m[mejor];
+		}
+	}
+
+	/**
+	 * Bsqueda primero el mejor hacia adelante (como <code>weka.attributeSelection.BestFirst</code>):
+	 * se expande siempre el subconjunto abierto de mayor mrito y se para tras
+	 * <code>limiteEstancamiento</code> expansiones seguidas sin mejorar el mejor subconjunto
+	 */
+	void primeroElMejor () {
+		PriorityQueue<double[]> abiertos;	// {mrito, mscara}
+		HashSet<Long> generados;			// Subconjuntos ya abiertos en esta bsqueda
+		int estancadas;
+
+		abiertos = new PriorityQueue<double[]>(11, new java.util.Comparator<double[]>() {
+			public int compare (double[] x, double[] y) {
+				return Double.compare(y[0], x[0]);
+			}
+		});
+		generados = new HashSet<Long>();
+		generados.add(0L);
+		abiertos.add(new double[] {evaluar(0), 0});
+		considerar(0, abiertos.peek()[0]);
+		estancadas = 0;
+		while (!abiertos.isEmpty() && estancadas < limiteEstancamiento) {
+			long actual = (long) abiertos.poll()[1];
+			long[] vecinos = vecinos(actual, true);
+			// Los subconjuntos ya abiertos no vuelven a abrirse
+			ArrayList<Long> nuevos = new ArrayList<Long>();
+			for (long v : vecinos)
+				if (generados.add(v))
+					nuevos.add(v);
+			long[] lote = new long[nuevos.size()];
+			for (int i=0; i<lote.length; i++)
+				lote[i] = nuevos.get(i);
+			double anterior = mejorMerito;
+			double[] m = evaluarTodos(lote, true);
+			for (int i=0; i<lote.length; i++)
+				abiertos.add(new double[] {m[i], lote[i]});
+			if (mejorMerito > anterior)
+				estancadas = 0;
+			else estancadas++;
+		}
+	}
+
+	/**
+	 * @param s subconjunto actual
+	 * @param adelante <code>true</code> para aadir un atributo, <code>false</code> para quitarlo
+	 * @return los subconjuntos que difieren de <code>s</code> en un atributo
+	 */
+	long[] vecinos (long s, boolean adelante) {
+		long libres;
+		long[] v;
+		int n;
+
+		libres = adelante ? (candidatos & ~s) : s;
+		v = new long[Long.bitCount(libres)];
+		n = 0;
+		while (libres != 0) {
+			long bit = Long.lowestOneBit(libres);
+			v[n++] = s ^ bit;
+			libres &= ~bit;
+		}
+		return v;
+	}
+
+	/**
+	 * @return los ndices de los atributos candidatos
+	 */
+	int[] indicesCandidatos () {
+		int[] indices;
+		int n;
+
+		indices = new int[Long.bitCount(candidatos)];
+		n = 0;
+		for (int a=0; a<datos.numAtributos(); a++)
+			if ((candidatos & (1L << a)) != 0)
+				indices[n++] = a;
+		return indices;
+	}
+
+	/**
+	 * Convierte un nmero de <code>indices.length</code> bits en la mscara de atributos
+	 * @param compacto nmero cuyo bit i indica si se usa el atributo <code>indices[i]</code>
+	 * @param indices ndices de los atributos candidatos
+	 * @return la mscara de bits sobre los ndices de los atributos
+	 */
+	static long expandir (long compacto, int[] indices) {
+		long s;
+
+		s = 0;
+		for (int i=0; i<indices.length; i++)
+			if ((compacto & (1L << i)) != 0)
+				s |= 1L << indices[i];
+		return s;
+	}
+
+	/**
+	 * Espera el resultado de una evaluacin
+	 * @param f <code>Future</code> con el mrito
+	 * @return el mrito
+	 */
+	static double obtener (Future<Double> f) {
+		try {
+			return f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Evaluacin interrumpida", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("ERROR evaluando un subconjunto", e.getCause());
+		}
+	}
+
+	/**
+	 * @return nmero de subconjuntos distintos evaluados en la ltima bsqueda
+	 */
+	public int numEvaluaciones () {
+		return evaluaciones.get();
+	}
+
+	/**
+	 * Libera los hilos de evaluacin
+	 */
+	public void cerrar () {
+		ejecutor.shutdown();
+	}
+
+	/**
+	 * Imprime el mejor subconjunto encontrado con un formato similar al de Weka
+	 */
+	public void print () {
+		System.out.println("Total number of subsets evaluated: " + numEvaluaciones());
+		System.out.println(String.format(java.util.Locale.ROOT, "Merit of best subset found: %7.3f", mejorMerito));
+		System.out.println();
+		System.out.println("Selected attributes:");
+		for (int a=0; a<datos.numAtributos(); a++)
+			if ((mejorSubconjunto & (1L << a)) != 0)
+				System.out.println(String.format("%5d %s", a+1, datos.nombres[a]));
+	}
+
+	/**
+	 * Selecciona los atributos de Datos/Farmaco1n.arff para predecir el frmaco
+	 * @param args fichero ARFF (la clase es el ltimo atributo) y bsqueda
+	 * (EXHAUSTIVA, HACIA_ADELANTE, HACIA_ATRAS o PRIMERO_EL_MEJOR)
+	 */
+	public static void main (String[] args) {
+		String fichero;
+		ConjuntoDatos d;
+		SeleccionAtributos seleccion;
+		Busqueda b;
+
+		fichero = args.length > 0 ? args[0] : "Datos/Farmaco1n.arff";
+		b = args.length > 1 ? Busqueda.valueOf(args[1]) : Busqueda.EXHAUSTIVA;
+		try {
+			d = ConjuntoDatos.leerArff(fichero);
+			seleccion = new SeleccionAtributos(d, d.numAtributos()-1, 5, 1,
+					Runtime.getRuntime().availableProcessors());
+			try {
+				seleccion.buscar(b);
+				System.out.println("Search Method: " + b);
+				seleccion.print();
+			} finally {
+				seleccion.cerrar();
+			}
+		} catch (IOException e) {
+			System.out.println("ERROR leyendo el fichero " + fichero);
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package org.ssii.logica;
+
+/**
+ * Clase que implementa un tomo <code>p(t1,...,tn)</code> de una clusula o consulta.
+ * Cada argumento es el identificador de una constante (valor mayor o igual que 0) o
+ * una variable de la clusula (valor negativo: la variable <code>v</code> se codifica
+ * como <code>-(v+1)</code>).
+ * @since Oct 2026
+ * @version 1.0
+ * @see BaseHechos
+ */
+public class Atomo {
+	public String predicado;	// Nombre del predicado
+	public int[] args;			// Argumentos: constantes (>= 0) o variables (< 0)
+
+	/**
+	 * Constructor.
+	 * @param p nombre del predicado
+	 * @param a argumentos codificados
+	 */
+	public Atomo (String p, int[] a) {
+		predicado = p;
+		args = a;
+	}
+
+	/**
+	 * @return la clave <code>nombre/aridad</code> de la relacin del tomo
+	 */
+	public String clave () {
+		return predicado + "/" + args.length;
+	}
+
+	/**
+	 * @param a posicin del argumento
+	 * @return <code>true</code> si el argumento es una variable
+	 */
+	public boolean esVariable (int a) {
+		return args[a] < 0;
+	}
+
+	/**
+	 * @param a posicin de un argumento que es una variable
+	 * @return el nmero de la variable dentro de la clusula
+	 */
+	public int variable (int a) {
+		return -args[a] - 1;
+	}
+}
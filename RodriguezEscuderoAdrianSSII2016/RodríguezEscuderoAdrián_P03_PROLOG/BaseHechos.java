@@ -0,0 +1,697 @@
+package org.ssii.logica;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Clase que implementa una base de hechos de tipo Datalog para los programas
+ * PrologEJ01.pl, PrologEJ02.pl y PrologEJ03.pl: hechos sin variables y reglas de Horn
+ * cuyos trminos son constantes o variables.
+ * <p>
+ * Las constantes se convierten en identificadores enteros y cada predicado se guarda en
+ * una <code>Relacion</code> indexada por argumento. Las consultas conjuntivas se
+ * resuelven con reuniones guiadas por los ndices: los objetivos se ordenan de forma que
+ * cada uno tenga el mayor nmero posible de argumentos ligados y, para cada objetivo, se
+ * recorren slo las tuplas del ndice ms selectivo. Las reglas se evalan de abajo a
+ * arriba con el mtodo semi-ingenuo (en cada ronda al menos un objetivo derivado se
+ * restringe a las tuplas obtenidas en la ronda anterior).
+ * @since Oct 2026
+ * @version 1.0
+ * @see Relacion
+ * @see Atomo
+ */
+public class BaseHechos {
+	public static final String CODIFICACION = "ISO-8859-1";	// Codificacin de los ficheros .pl
+
+	HashMap<String, Integer> ids;			// Identificador de cada constante
+	ArrayList<String> constantes;			// Texto de cada constante
+	HashMap<String, Relacion> relaciones;	// Relaciones por clave nombre/aridad
+	ArrayList<Regla> reglas;				// Reglas del programa
+	boolean pendiente;						// Indica si hay que volver a evaluar las reglas
+
+	/**
+	 * Regla de Horn <code>cabeza :- cuerpo</code>
+	 */
+	public static class Regla {
+		public Atomo cabeza;		// Cabeza de la regla
+		public Atomo[] cuerpo;		// Objetivos del cuerpo
+		public int numVariables;	// Nmero de variables distintas de la regla
+
+		public Regla (Atomo c, Atomo[] b, int nv) {
+			cabeza = c;
+			cuerpo = b;
+			numVariables = nv;
+		}
+	}
+
+	/**
+	 * Consulta conjuntiva <code>g1, ..., gn</code>
+	 */
+	public static class Consulta {
+		public Atomo[] objetivos;	// Objetivos de la consulta
+		public String[] variables;	// Nombres de las variables (las annimas no tienen nombre)
+
+		public Consulta (Atomo[] o, String[] v) {
+			objetivos = o;
+			variables = v;
+		}
+	}
+
+	/**
+	 * Recibe cada solucin encontrada al resolver una conjuncin de objetivos
+	 */
+	interface Receptor {
+		void solucion (int[] ligaduras);
+	}
+
+	/**
+	 * Constructor. Crea una base de hechos vaca.
+	 */
+	public BaseHechos () {
+		ids = new HashMap<String, Integer>();
+		constantes = new ArrayList<String>();
+		relaciones = new HashMap<String, Relacion>();
+		reglas = new ArrayList<Regla>();
+		pendiente = false;
+	}
+
+	/**
+	 * Obtiene (o crea) el identificador de una constante
+	 * @param c texto de la constante
+	 * @return su identificador
+	 */
+	public int constante (String c) {
+		Integer id;
+
+		id = ids.get(c);
+		if (id == null) {
+			id = constantes.size();
+			ids.put(c, id);
+			constantes.add(c);
+		}
+		return id;
+	}
+
+	/**
+	 * @param id identificador de una constante
+	 * @return el texto de la constante
+	 */
+	public String texto (int id) {
+		return constantes.get(id);
+	}
+
+	/**
+	 * Obtiene la relacin de un predicado
+	 * @param nombre nombre del predicado
+	 * @param aridad nmero de argumentos
+	 * @return la <code>Relacion</code> o <code>null</code> si no hay ninguna
+	 */
+	public Relacion relacion (String nombre, int aridad) {
+		return relaciones.get(nombre + "/" + aridad);
+	}
+
+	/**
+	 * Obtiene (o crea) la relacin de un tomo
+	 * @param a <code>Atomo</code> del predicado
+	 * @return la <code>Relacion</code> del predicado
+	 */
+	Relacion relacionDe (Atomo a) {
+		Relacion r;
+
+		r = relaciones.get(a.clave());
+		if (r == null) {
+			r = new Relacion(a.predicado, a.args.length);
+			relaciones.put(a.clave(), r);
+		}
+		return r;
+	}
+
+	/**
+	 * Aade un hecho sin variables
+	 * @param predicado nombre del predicado
+	 * @param args constantes del hecho
+	 * @return <code>true</code> si el hecho es nuevo
+	 */
+	public boolean anadirHecho (String predicado, String... args) {
+		int[] t;
+		Relacion r;
+
+		t = new int[args.length];
+		for (int a=0; a<args.length; a++)
+			t[a] = constante(args[a]);
+		r = relacionDe(new Atomo(predicado, t));
+		if (r.anadir(t)) {
+			pendiente = pendiente || !reglas.isEmpty();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Aade una regla. Todas las variables de la cabeza deben aparecer en el cuerpo.
+	 * @param r <code>Regla</code> a aadir
+	 */
+	public void anadirRegla (Regla r) {
+		boolean[] enCuerpo;
+
+		enCuerpo = new boolean[r.numVariables];
+		for (Atomo g : r.cuerpo)
+			for (int a=0; a<g.args.length; a++)
+				if (g.esVariable(a))
+					enCuerpo[g.variable(a)] = true;
+		for (int a=0; a<r.cabeza.args.length; a++)
+			if (r.cabeza.esVariable(a) && !enCuerpo[r.cabeza.variable(a)])
+				throw new IllegalArgumentException("Regla no segura: variable de la cabeza " +
+						"que no aparece en el cuerpo de " + r.cabeza.clave());
+		relacionDe(r.cabeza).derivada = true;
+		for (Atomo g : r.cuerpo)
+			relacionDe(g);
+		reglas.add(r);
+		pendiente = true;
+	}
+
+	/**
+	 * Carga un programa Prolog con hechos y reglas
+	 * @param fichero ruta del fichero .pl
+	 * @throws IOException si el fichero no se puede leer
+	 */
+	public void cargar (String fichero) throws IOException {
+		BufferedReader br;
+		StringBuilder texto;
+		String linea;
+
+		br = new BufferedReader(new InputStreamReader(new FileInputStream(fichero), CODIFICACION));
+		texto = new StringBuilder();
+		try {
+			while ((linea = br.readLine()) != null) {
+				int comentario = linea.indexOf('%');
+				if (comentario >= 0)
+					linea = linea.substring(0, comentario);
+				texto.append(linea).append('\n');
+			}
+		} finally {
+			br.close();
+		}
+		for (String clausula : separarClausulas(texto.toString()))
+			anadirClausula(clausula);
+	}
+
+	/**
+	 * Aade un hecho o una regla escritos en sintaxis Prolog (sin el punto final)
+	 * @param clausula texto de la clusula
+	 */
+	public void anadirClausula (String clausula) {
+		HashMap<String, Integer> vars;
+		int sep;
+
+		vars = new HashMap<String, Integer>();
+		sep = clausula.indexOf(":-");
+		if (sep < 0) {
+			Atomo h = analizarAtomo(clausula, vars);
+			if (!vars.isEmpty())
+				throw new IllegalArgumentException("Los hechos no pueden contener variables: " + clausula);
+			if (relacionDe(h).anadir(h.args))
+				pendiente = pendiente || !reglas.isEmpty();
+		} else {
+			Atomo cabeza = analizarAtomo(clausula.substring(0, sep), vars);
+			List<String> partes = separar(clausula.substring(sep+2), ',');
+			Atomo[] cuerpo = new Atomo[partes.size()];
+			for (int i=0; i<cuerpo.length; i++)
+				cuerpo[i] = analizarAtomo(partes.get(i), vars);
+			anadirRegla(new Regla(cabeza, cuerpo, vars.size()));
+		}
+	}
+
+	/**
+	 * Analiza una consulta conjuntiva, p.e. <code>come(X,manzanas),come(X,uvas)</code>
+	 * @param texto texto de la consulta (sin el punto final)
+	 * @return la <code>Consulta</code> analizada
+	 */
+	public Consulta analizarConsulta (String texto) {
+		HashMap<String, Integer> vars;
+		List<String> partes;
+		Atomo[] objetivos;
+		String[] nombres;
+
+		vars = new HashMap<String, Integer>();
+		partes = separar(texto, ',');
+		objetivos = new Atomo[partes.size()];
+		for (int i=0; i<objetivos.length; i++)
+			objetivos[i] = analizarAtomo(partes.get(i), vars);
+		nombres = new String[vars.size()];
+		for (String v : vars.keySet())
+			if (!v.startsWith("_"))
+				nombres[vars.get(v)] = v;
+		return new Consulta(objetivos, nombres);
+	}
+
+	/**
+	 * Resuelve una consulta conjuntiva
+	 * @param c <code>Consulta</code> a resolver
+	 * @return los valores de las variables de la consulta en cada solucin
+	 */
+	public List<String[]> respuestas (Consulta c) {
+		final ArrayList<String[]> resultado;
+		final int nv;
+		int[] desde, hasta;
+
+		evaluarReglas();
+		resultado = new ArrayList<String[]>();
+		nv = c.variables.length;
+		desde = new int[c.objetivos.length];
+		hasta = new int[c.objetivos.length];
+		for (int i=0; i<c.objetivos.length; i++) {
+			Relacion r = relaciones.get(c.objetivos[i].clave());
+			hasta[i] = r == null ? 0 : r.numTuplas();
+		}
+		resolver(c.objetivos, ordenar(c.objetivos, -1), desde, hasta, nv, new Receptor() {
+			public void solucion (int[] lig) {
+				String[] fila = new String[nv];
+				for (int v=0; v<nv; v++)
+					fila[v] = texto(lig[v]);
+				resultado.add(fila);
+			}
+		});
+		return resultado;
+	}
+
+	/**
+	 * Resuelve una consulta conjuntiva escrita en sintaxis Prolog
+	 * @param texto texto de la consulta (sin el punto final)
+	 * @return los valores de las variables de la consulta en cada solucin
+	 */
+	public List<String[]> respuestas (String texto) {
+		return respuestas(analizarConsulta(texto));
+	}
+
+	/**
+	 * Evaluacin semi-ingenua de las reglas. En la primera ronda se evala cada regla con
+	 * todas las tuplas; en las siguientes, para cada objetivo derivado que tuvo tuplas
+	 * nuevas en la ronda anterior, se evala la regla restringiendo ese objetivo a dichas
+	 * tuplas. Termina cuando una ronda no produce tuplas nuevas.
+	 */
+	public void evaluarReglas () {
+		boolean hayNuevas;
+
+		if (!pendiente)
+			return;
+		for (Relacion r : relaciones.values()) {
+			r.desdeDelta = 0;
+			r.hastaDelta = r.numTuplas();
+		}
+		for (Regla regla : reglas)
+			evaluarRegla(regla, -1);
+		do {
+			hayNuevas = false;
+			for (Relacion r : relaciones.values()) {
+				if (!r.derivada)
+					continue;
+				r.desdeDelta = r.hastaDelta;
+				r.hastaDelta = r.numTuplas();
+				hayNuevas = hayNuevas || r.desdeDelta < r.hastaDelta;
+			}
+			if (!hayNuevas)
+				break;
+			for (Regla regla : reglas)
+				for (int i=0; i<regla.cuerpo.length; i++) {
+					Relacion r = relaciones.get(regla.cuerpo[i].clave());
+					if (r.derivada && r.desdeDelta < r.hastaDelta)
+						evaluarRegla(regla, i);
+				}
+		} while (true);
+		pendiente = false;
+	}
+
+	/**
+	 * Evala una regla aadiendo a la relacin de la cabeza las tuplas obtenidas
+	 * @param regla <code>Regla</code> a evaluar
+	 * @param delta objetivo restringido a las tuplas nuevas de la ronda anterior (-1 si ninguno)
+	 */
+	void evaluarRegla (Regla regla, int delta) {
+		final Atomo cabeza;
+		final Relacion destino;
+		int[] desde, hasta;
+
+		cabeza = regla.cabeza;
+		destino = relaciones.get(cabeza.clave());
+		desde = new int[regla.cuerpo.length];
+		hasta = new int[regla.cuerpo.length];
+		for (int i=0; i<regla.cuerpo.length; i++) {
+			Relacion r = relaciones.get(regla.cuerpo[i].clave());
+			hasta[i] = r.hastaDelta;
+			if (i == delta)
+				desde[i] = r.desdeDelta;
+		}
+		resolver(regla.cuerpo, ordenar(regla.cuerpo, delta), desde, hasta, regla.numVariables, new Receptor() {
+			public void solucion (int[] lig) {
+				int[] t = new int[cabeza.args.length];
+				for (int a=0; a<t.length; a++)
+					t[a] = cabeza.esVariable(a) ? lig[cabeza.variable(a)] : cabeza.args[a];
+				destino.anadir(t);
+			}
+		});
+	}
+
+	/**
+	 * Ordena los objetivos de una conjuncin: se elige en cada paso el que tiene ms
+	 * argumentos ligados (por constantes o por variables de objetivos anteriores) y, en
+	 * caso de empate, el de la relacin con menos tuplas
+	 * @param objetivos objetivos de la conjuncin
+	 * @param primero objetivo que debe resolverse en primer lugar (-1 si ninguno)
+	 * @return el orden de resolucin
+	 */
+	int[] ordenar (Atomo[] objetivos, int primero) {
+		int[] orden;
+		boolean[] usado;
+		HashMap<Integer, Boolean> ligadas;
+
+		orden = new int[objetivos.length];
+		usado = new boolean[objetivos.length];
+		ligadas = new HashMap<Integer, Boolean>();
+		for (int paso=0; paso<objetivos.length; paso++) {
+			int mejor = -1, mejorLigados = -1, mejorTam = Integer.MAX_VALUE;
+			if (paso == 0 && primero >= 0)
+				mejor = primero;
+			else {
+				for (int i=0; i<objetivos.length; i++) {
+					if (usado[i])
+						continue;
+					int ligados = 0;
+					for (int a=0; a<objetivos[i].args.length; a++)
+						if (!objetivos[i].esVariable(a) || ligadas.containsKey(objetivos[i].variable(a)))
+							ligados++;
+					Relacion r = relaciones.get(objetivos[i].clave());
+					int tam = r == null ? 0 : r.numTuplas();
+					if (ligados > mejorLigados || (ligados == mejorLigados && tam < mejorTam)) {
+						mejor = i;
+						mejorLigados = ligados;
+						mejorTam = tam;
+					}
+				}
+			}
+			orden[paso] = mejor;
+			usado[mejor] = true;
+			for (int a=0; a<objetivos[mejor].args.length; a++)
+				if (objetivos[mejor].esVariable(a))
+					ligadas.put(objetivos[mejor].variable(a), true);
+		}
+		return orden;
+	}
+
+	/**
+	 * Resuelve una conjuncin de objetivos
+	 * @param objetivos objetivos de la conjuncin
+	 * @param orden orden en que se resuelven los objetivos
+	 * @param desde primera tupla que puede utilizar cada objetivo
+	 * @param hasta tupla siguiente a la ltima que puede utilizar cada objetivo
+	 * @param numVariables nmero de variables de la conjuncin
+	 * @param receptor <code>Receptor</code> de las soluciones
+	 */
+	void resolver (Atomo[] objetivos, int[] orden, int[] desde, int[] hasta, int numVariables, Receptor receptor) {
+		int[] lig;
+
+		lig = new int[numVariables];
+		java.util.Arrays.fill(lig, -1);
+		resolver(objetivos, orden, desde, hasta, 0, lig, receptor);
+	}
+
+	/**
+	 * Resuelve los objetivos a partir de la posicin indicada del orden de resolucin
+	 * @param objetivos objetivos de la conjuncin
+	 * @param orden orden en que se resuelven los objetivos
+	 * @param desde primera tupla que puede utilizar cada objetivo
+	 * @param hasta tupla siguiente a la ltima que puede utilizar cada objetivo
+	 * @param paso posicin en el orden del objetivo a resolver
+	 * @param lig valor de cada variable (-1 si no est ligada)
+	 * @param receptor <code>Receptor</code> de las soluciones
+	 */
+	void resolver (Atomo[] objetivos, int[] orden, int[] desde, int[] hasta, int paso, int[] lig, Receptor receptor) {
+		Atomo g;
+		Relacion r;
+		Relacion.ListaEnteros mejor;
+		int d, h;
+
+		if (paso == orden.length) {
+			receptor.solucion(lig);
+			return;
+		}
+		g = objetivos[orden[paso]];
+		r = relaciones.get(g.clave());
+		if (r == null)
+			return;
+		d = desde[orden[paso]];
+		h = hasta[orden[paso]];
+
+		// ndice ms selectivo entre los argumentos ligados
+		mejor = null;
+		for (int a=0; a<g.args.length; a++) {
+			int v = g.esVariable(a) ? lig[g.variable(a)] : g.args[a];
+			if (v < 0)
+				continue;
+			Relacion.ListaEnteros l = r.tuplasCon(a, v);
+			if (l == null)
+				return;
+			if (mejor == null || l.tam < mejor.tam)
+				mejor = l;
+		}
+		if (mejor != null) {
+			for (int i=mejor.primeraPosicion(d); i<mejor.tam && mejor.datos[i]<h; i++)
+				probar(objetivos, orden, desde, hasta, paso, lig, receptor, g, r, mejor.datos[i]);
+		} else {
+			for (int t=d; t<h; t++)
+				probar(objetivos, orden, desde, hasta, paso, lig, receptor, g, r, t);
+		}
+	}
+
+	/**
+	 * Unifica un objetivo con una tupla y, si tiene xito, contina con el siguiente objetivo
+	 * @param g <code>Atomo</code> del objetivo
+	 * @param r <code>Relacion</code> del objetivo
+	 * @param t identificador de la tupla
+	 */
+	void probar (Atomo[] objetivos, int[] orden, int[] desde, int[] hasta, int paso, int[] lig,
+			Receptor receptor, Atomo g, Relacion r, int t) {
+		int[] nuevas;
+		int numNuevas;
+		boolean unifica;
+
+		nuevas = new int[g.args.length];
+		numNuevas = 0;
+		unifica = true;
+		for (int a=0; a<g.args.length && unifica; a++) {
+			int x = r.argumento(t, a);
+			if (!g.esVariable(a))
+				unifica = g.args[a] == x;
+			else if (lig[g.variable(a)] >= 0)
+				unifica = lig[g.variable(a)] == x;
+			else {
+				lig[g.variable(a)] = x;
+				nuevas[numNuevas++] = g.variable(a);
+			}
+		}
+		if (unifica)
+			resolver(objetivos, orden, desde, hasta, paso+1, lig, receptor);
+		for (int i=0; i<numNuevas; i++)
+			lig[nuevas[i]] = -1;
+	}
+
+	/**
+	 * Analiza un tomo <code>p(t1,...,tn)</code> o <code>p</code>
+	 * @param texto texto del tomo
+	 * @param vars variables de la clusula (se aaden las nuevas)
+	 * @return el <code>Atomo</code> analizado
+	 */
+	Atomo analizarAtomo (String texto, HashMap<String, Integer> vars) {
+		String nombre;
+		List<String> terminos;
+		int[] args;
+		int par;
+
+		texto = texto.trim();
+		par = texto.indexOf('(');
+		if (par < 0) {
+			nombre = texto;
+			terminos = new ArrayList<String>();
+		} else {
+			if (!texto.endsWith(")"))
+				throw new IllegalArgumentException("Sintaxis no vlida: " + texto);
+			nombre = texto.substring(0, par).trim();
+			terminos = separar(texto.substring(par+1, texto.length()-1), ',');
+		}
+		if (nombre.isEmpty())
+			throw new IllegalArgumentException("Sintaxis no vlida: " + texto);
+		if (!nombreValido(nombre))
+			throw new IllegalArgumentException("Operador o predicado no admitido: " + texto);
+		args = new int[terminos.size()];
+		for (int a=0; a<args.length; a++) {
+			String t = terminos.get(a).trim();
+			if (t.isEmpty() || t.indexOf('(') >= 0)
+				throw new IllegalArgumentException("Slo se admiten constantes y variables: " + texto);
+			char c = t.charAt(0);
+			if (t.equals("_")) {
+				// cada variable annima es distinta
+				args[a] = -(vars.size() + 1);
+				vars.put("_" + vars.size(), vars.size());
+			} else if (Character.isUpperCase(c) || c == '_') {
+				Integer v = vars.get(t);
+				if (v == null) {
+					v = vars.size();
+					vars.put(t, v);
+				}
+				args[a] = -(v + 1);
+			} else {
+				if (c == '\'' && t.length() > 1 && t.endsWith("'"))
+					t = t.substring(1, t.length()-1);
+				args[a] = constante(t);
+			}
+		}
+		return new Atomo(nombre, args);
+	}
+
+	/**
+	 * Comprueba que un nombre de predicado es un tomo de Prolog: empieza por minscula y
+	 * slo tiene letras, dgitos y <code>_</code>. As se rechazan las comparaciones y
+	 * dems operadores (<code>X \= Y</code>, <code>X &lt; Y</code>...), que no se admiten.
+	 * @param nombre nombre del predicado
+	 * @return <code>true</code> si el nombre es vlido
+	 */
+	static boolean nombreValido (String nombre) {
+		if (!Character.isLowerCase(nombre.charAt(0)))
+			return false;
+		for (int i=1; i<nombre.length(); i++) {
+			char c = nombre.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '_')
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Separa un texto por un carcter que no est entre parntesis ni entre comillas
+	 * @param texto texto a separar
+	 * @param sep carcter separador
+	 * @return las partes del texto
+	 */
+	static List<String> separar (String texto, char sep) {
+		ArrayList<String> partes;
+		int nivel, inicio;
+		boolean comillas;
+
+		partes = new ArrayList<String>();
+		nivel = 0;
+		inicio = 0;
+		comillas = false;
+		for (int i=0; i<texto.length(); i++) {
+			char c = texto.charAt(i);
+			if (c == '\'')
+				comillas = !comillas;
+			else if (comillas)
+				continue;
+			else if (c == '(')
+				nivel++;
+			else if (c == ')')
+				nivel--;
+			else if (c == sep && nivel == 0) {
+				partes.add(texto.substring(inicio, i).trim());
+				inicio = i + 1;
+			}
+		}
+		if (texto.substring(inicio).trim().length() > 0 || !partes.isEmpty())
+			partes.add(texto.substring(inicio).trim());
+		return partes;
+	}
+
+	/**
+	 * Separa un programa en clusulas: cada una termina en un punto seguido de un
+	 * espacio o del final del texto (as no se confunde con el de un nmero decimal)
+	 * @param texto programa sin comentarios
+	 * @return las clusulas sin el punto final
+	 */
+	static List<String> separarClausulas (String texto) {
+		ArrayList<String> clausulas;
+		int inicio;
+
+		clausulas = new ArrayList<String>();
+		inicio = 0;
+		for (int i=0; i<texto.length(); i++) {
+			if (texto.charAt(i) == '.' && (i+1 == texto.length() || Character.isWhitespace(texto.charAt(i+1)))) {
+				String c = texto.substring(inicio, i).trim();
+				if (!c.isEmpty())
+					clausulas.add(c);
+				inicio = i + 1;
+			}
+		}
+		if (!texto.substring(inicio).trim().isEmpty())
+			throw new IllegalArgumentException("Clusula sin punto final: " + texto.substring(inicio).trim());
+		return clausulas;
+	}
+
+	/**
+	 * Imprime las respuestas a una consulta con el formato de la consola de Prolog. Las
+	 * disyunciones (<code>;</code>) se resuelven alternativa a alternativa.
+	 * @param texto texto de la consulta (sin el punto final)
+	 */
+	public void imprimirRespuestas (String texto) {
+		boolean alguna;
+
+		alguna = false;
+		for (String alternativa : separar(texto, ';')) {
+			Consulta c = analizarConsulta(alternativa);
+			for (String[] fila : respuestas(c)) {
+				StringBuilder sb = new StringBuilder();
+				for (int v=0; v<fila.length; v++) {
+					if (c.variables[v] == null)
+						continue;
+					if (sb.length() > 0)
+						sb.append(", ");
+					sb.append(c.variables[v]).append(" = ").append(fila[v]);
+				}
+				System.out.println(sb.length() > 0 ? sb + " ;" : "true ;");
+				alguna = true;
+			}
+		}
+		System.out.println(alguna ? "true." : "false.");
+	}
+
+	/**
+	 * Carga los programas indicados y responde a las consultas ledas desde la consola
+	 * @param args ficheros .pl a cargar
+	 */
+	public static void main (String[] args) {
+		BaseHechos base;
+		BufferedReader ibr;
+		String consulta;
+
+		base = new BaseHechos();
+		try {
+			for (String fichero : args)
+				base.cargar(fichero);
+			ibr = new BufferedReader(new InputStreamReader(System.in));
+			System.out.print("?- ");
+			while ((consulta = ibr.readLine()) != null) {
+				consulta = consulta.trim();
+				if (consulta.endsWith("."))
+					consulta = consulta.substring(0, consulta.length()-1);
+				if (consulta.equals("halt"))
+					break;
+				if (!consulta.isEmpty()) {
+					try {
+						base.imprimirRespuestas(consulta);
+					} catch (IllegalArgumentException e) {
+						System.out.println("ERROR: " + e.getMessage());
+					}
+				}
+				System.out.print("?- ");
+			}
+			ibr.close();
+		} catch (IOException e) {
+			System.out.println("ERROR leyendo los programas");
+			e.printStackTrace();
+		}
+	}
+}
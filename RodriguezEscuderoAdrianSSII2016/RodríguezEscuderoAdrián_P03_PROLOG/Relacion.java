@@ -0,0 +1,206 @@
+package org.ssii.logica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Clase que implementa una relacin (predicado con una aridad fija) de la base de hechos.
+ * Las tuplas se guardan consecutivamente en un nico <code>int[]</code> con los
+ * identificadores de sus constantes y slo se aaden, por lo que el identificador de
+ * una tupla indica tambin el orden en que se obtuvo (lo que utiliza la evaluacin
+ * semi-ingenua para distinguir las tuplas nuevas). Adems de una tabla hash para
+ * descartar duplicados, mantiene un ndice por cada argumento que, para cada constante,
+ * guarda en orden creciente las tuplas que la contienen en esa posicin. Los ndices
+ * slo tienen entradas para las constantes que aparecen en la relacin, de modo que su
+ * tamao depende del nmero de tuplas y no del nmero total de constantes de la base.
+ * @since Oct 2026
+ * @version 1.0
+ * @see BaseHechos
+ */
+public class Relacion {
+	public String nombre;		// Nombre del predicado
+	public int aridad;			// Nmero de argumentos
+	int[] tuplas;				// Argumentos de las tuplas, aridad enteros por tupla
+	int numTuplas;				// Nmero de tuplas almacenadas
+	int[] tabla;				// Tabla hash (direccionamiento abierto): identificador de tupla + 1
+	ArrayList<HashMap<Integer, ListaEnteros>> indice;	// Tuplas que contienen cada constante en cada argumento
+	boolean derivada;			// Indica si aparece en la cabeza de alguna regla
+	int desdeDelta, hastaDelta;	// Tuplas nuevas de la ltima ronda de la evaluacin semi-ingenua
+
+	/**
+	 * Lista creciente de enteros sin objetos intermedios
+	 */
+	static class ListaEnteros {
+		int[] datos;
+		int tam;
+
+		ListaEnteros () {
+			datos = new int[2];
+		}
+
+		void anadir (int v) {
+			if (tam == datos.length)
+				datos = java.util.Arrays.copyOf(datos, 2*tam);
+			datos[tam++] = v;
+		}
+
+		/**
+		 * @param v valor buscado
+		 * @return la primera posicin cuyo valor es mayor o igual que <code>v</code>
+		 */
+		int primeraPosicion (int v) {
+			int ini = 0, fin = tam;
+			while (ini < fin) {
+				int m = (ini + fin) >>> 1;
+				if (datos[m] < v)
+					ini = m + 1;
+				else fin = m;
+			}
+			return ini;
+		}
+	}
+
+	/**
+	 * Constructor. Crea una relacin vaca.
+	 * @param nom nombre del predicado
+	 * @param ar nmero de argumentos
+	 */
+	public Relacion (String nom, int ar) {
+		nombre = nom;
+		aridad = ar;
+		tuplas = new int[Math.max(ar, 1) * 16];
+		tabla = new int[32];
+		indice = new ArrayList<HashMap<Integer, ListaEnteros>>(ar);
+		for (int a=0; a<ar; a++)
+			indice.add(new HashMap<Integer, ListaEnteros>());
+	}
+
+	/**
+	 * @return Devuelve el nmero de tuplas
+	 */
+	public int numTuplas () {
+		return numTuplas;
+	}
+
+	/**
+	 * Obtiene un argumento de una tupla
+	 * @param t identificador de la tupla
+	 * @param a posicin del argumento
+	 * @return el identificador de la constante
+	 */
+	public int argumento (int t, int a) {
+		return tuplas[t*aridad + a];
+	}
+
+	/**
+	 * Aade una tupla si no estaba ya en la relacin
+	 * @param args identificadores de las constantes de la tupla
+	 * @return <code>true</code> si la tupla es nueva
+	 */
+	public boolean anadir (int[] args) {
+		int pos;
+
+		if (buscar(args) >= 0)
+			return false;
+		if ((numTuplas+1)*aridad > tuplas.length)
+			tuplas = java.util.Arrays.copyOf(tuplas, 2*tuplas.length);
+		System.arraycopy(args, 0, tuplas, numTuplas*aridad, aridad);
+		for (int a=0; a<aridad; a++) {
+			ListaEnteros l = indice.get(a).get(args[a]);
+			if (l == null) {
+				l = new ListaEnteros();
+				indice.get(a).put(args[a], l);
+			}
+			l.anadir(numTuplas);
+		}
+		numTuplas++;
+		if (2*numTuplas > tabla.length)
+			redimensionar();
+		pos = hueco(args);
+		tabla[pos] = numTuplas;
+		return true;
+	}
+
+	/**
+	 * Busca una tupla completa
+	 * @param args identificadores de las constantes de la tupla
+	 * @return el identificador de la tupla o -1 si no est
+	 */
+	public int buscar (int[] args) {
+		int t;
+
+		t = tabla[hueco(args)];
+		return t - 1;
+	}
+
+	/**
+	 * Devuelve las tuplas que tienen una constante en un argumento
+	 * @param a posicin del argumento
+	 * @param c identificador de la constante
+	 * @return la lista de tuplas (en orden creciente) o <code>null</code> si no hay ninguna
+	 */
+	ListaEnteros tuplasCon (int a, int c) {
+		return indice.get(a).get(c);
+	}
+
+	/**
+	 * Localiza la posicin de la tabla hash en la que est (o debera estar) una tupla
+	 * @param args identificadores de las constantes de la tupla
+	 * @return la posicin de la tabla
+	 */
+	int hueco (int[] args) {
+		int mascara, pos;
+
+		mascara = tabla.length - 1;
+		pos = hash(args, 0, aridad) & mascara;
+		while (tabla[pos] != 0 && !igual(tabla[pos]-1, args))
+			pos = (pos + 1) & mascara;
+		return pos;
+	}
+
+	/**
+	 * @param t identificador de una tupla
+	 * @param args identificadores de las constantes de otra tupla
+	 * @return <code>true</code> si ambas tuplas son iguales
+	 */
+	boolean igual (int t, int[] args) {
+		for (int a=0; a<aridad; a++)
+			if (tuplas[t*aridad + a] != args[a])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Duplica el tamao de la tabla hash
+	 */
+	void redimensionar () {
+		int mascara;
+
+		tabla = new int[2*tabla.length];
+		mascara = tabla.length - 1;
+		for (int t=0; t<numTuplas; t++) {
+			int pos = hash(tuplas, t*aridad, aridad) & mascara;
+			while (tabla[pos] != 0)
+				pos = (pos + 1) & mascara;
+			tabla[pos] = t + 1;
+		}
+	}
+
+	/**
+	 * @param v vector de enteros
+	 * @param desde posicin del primer entero
+	 * @param n nmero de enteros
+	 * @return cdigo hash de los enteros indicados
+	 */
+	static int hash (int[] v, int desde, int n) {
+		int h;
+
+		h = 0x9E3779B9;
+		for (int i=0; i<n; i++) {
+			h ^= v[desde+i];
+			h *= 0x85EBCA6B;
+			h ^= h >>> 13;
+		}
+		return h;
+	}
+}